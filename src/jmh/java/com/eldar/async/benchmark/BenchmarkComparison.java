@@ -0,0 +1,112 @@
+package com.eldar.async.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares a JMH CSV result file against a baseline result file.
+ * <p>
+ * Prints the change of every benchmark found in both files and exits with status 1 when a benchmark got slower than
+ * the allowed threshold. For throughput a lower score is slower, for the time based modes a higher score is slower.
+ * <p>
+ * Usage: BenchmarkComparison &lt;baseline.csv&gt; &lt;result.csv&gt; [threshold percent, default 10]
+ */
+public final class BenchmarkComparison {
+
+    private static final String THROUGHPUT_MODE = "thrpt";
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.csv> <result.csv> [threshold percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score baselineScore = baseline.get(entry.getKey());
+            if (baselineScore == null) {
+                System.out.printf(Locale.ROOT, "%-100s %15s%n", entry.getKey(), "NEW");
+                continue;
+            }
+            Score currentScore = entry.getValue();
+            double change = (currentScore.value() - baselineScore.value()) / baselineScore.value() * 100;
+            // positive slowdown means the benchmark got slower
+            double slowdown = THROUGHPUT_MODE.equals(currentScore.mode()) ? -change : change;
+            boolean regression = slowdown > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf(Locale.ROOT, "%-100s %12.3f -> %12.3f %s %+7.2f%% %s%n", entry.getKey(),
+                    baselineScore.value(), currentScore.value(), currentScore.unit(), change,
+                    regression ? "REGRESSION" : "");
+        }
+        System.out.printf(Locale.ROOT, "%d benchmarks compared, %d slower than the %.1f%% threshold%n",
+                current.size(), regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        Map<String, Score> scores = new LinkedHashMap<>();
+        if (lines.isEmpty()) {
+            return scores;
+        }
+        List<String> header = parseLine(lines.get(0));
+        int benchmarkColumn = header.indexOf("Benchmark");
+        int modeColumn = header.indexOf("Mode");
+        int scoreColumn = header.indexOf("Score");
+        int unitColumn = header.indexOf("Unit");
+        for (String line : lines.subList(1, lines.size())) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> columns = parseLine(line);
+            StringBuilder key = new StringBuilder(columns.get(benchmarkColumn))
+                    .append(' ').append(columns.get(modeColumn));
+            for (int i = 0; i < header.size(); i++) {
+                if (header.get(i).startsWith("Param: ")) {
+                    key.append(' ').append(header.get(i).substring("Param: ".length()))
+                            .append('=').append(columns.get(i));
+                }
+            }
+            scores.put(key.toString(), new Score(columns.get(modeColumn),
+                    Double.parseDouble(columns.get(scoreColumn)), columns.get(unitColumn)));
+        }
+        return scores;
+    }
+
+    private static List<String> parseLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (char c : line.toCharArray()) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+
+    private record Score(String mode, double value, String unit) {
+    }
+}
@@ -0,0 +1,62 @@
+package com.eldar.async.benchmark;
+
+import com.eldar.async.AsyncProperties;
+import com.eldar.async.decorator.TaskDecoratorResolver;
+import com.eldar.async.executor.ExecutorFactory;
+import com.eldar.async.executor.ExecutorServiceManager;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Builds the executors and workloads shared by the benchmarks.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    public enum Workload {
+        /**
+         * Hashing loop, keeps the worker busy.
+         */
+        CPU,
+        /**
+         * Parks the worker, like a partition waiting on JDBC or HTTP.
+         */
+        BLOCKING
+    }
+
+    static ExecutorServiceManager newExecutorServiceManager(AsyncProperties.ExecutorType executorType, int coreSize) {
+        AsyncProperties asyncProperties = new AsyncProperties();
+        asyncProperties.setType(executorType);
+        asyncProperties.getPool().setCoreSize(coreSize);
+        asyncProperties.getPool().setMaxCoreSize(Math.max(8, coreSize));
+        // large enough for the biggest list and the smallest partition size of the benchmarks
+        asyncProperties.getPool().setQueueCapacity(1_000_000);
+        asyncProperties.getForkJoin().setParallelism(coreSize);
+        // the default task decorator is resolved without the application context
+        ExecutorFactory executorFactory = new ExecutorFactory(asyncProperties,
+                new TaskDecoratorResolver(asyncProperties, null));
+        ExecutorServiceManager executorServiceManager = new ExecutorServiceManager(executorFactory);
+        executorServiceManager.init();
+        return executorServiceManager;
+    }
+
+    static long process(Workload workload, int item) {
+        if (workload == Workload.BLOCKING) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+            return item;
+        }
+        long hash = item;
+        for (int i = 0; i < 100; i++) {
+            hash = hash * 31 + (hash >>> 7);
+        }
+        return hash;
+    }
+
+    static Executor defaultExecutor(ExecutorServiceManager executorServiceManager) {
+        return executorServiceManager.getDefaultExecutor();
+    }
+}
@@ -0,0 +1,94 @@
+package com.eldar.async.benchmark;
+
+import com.eldar.async.ContextSnapshot;
+import com.eldar.async.ThreadUtil;
+import com.eldar.async.decorator.ContextAwareTaskDecorator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per task overhead of the context propagation done by {@link ContextAwareTaskDecorator}, measured on a single
+ * thread - the capture on the submitting side and the apply and restore on the worker side. {@code wrapWithSnapshot}
+ * is the per task overhead of a partitioned call, which captures the context once and shares it by all partitions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ContextPropagationBenchmark {
+
+    /**
+     * Number of MDC entries of the submitting thread, 0 for an empty MDC.
+     */
+    @Param({"0", "5"})
+    private int mdcEntries;
+
+    @Param({"false", "true"})
+    private boolean authenticated;
+
+    private final ContextAwareTaskDecorator taskDecorator = new ContextAwareTaskDecorator();
+    private Runnable task;
+    private ContextSnapshot snapshot;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        MDC.clear();
+        for (int i = 0; i < mdcEntries; i++) {
+            MDC.put("key-" + i, "value-" + i);
+        }
+        SecurityContextHolder.clearContext();
+        if (authenticated) {
+            SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "password"));
+        }
+        task = () -> blackhole.consume(Thread.currentThread());
+        snapshot = ContextSnapshot.capture();
+    }
+
+    @TearDown
+    public void tearDown() {
+        MDC.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void baseline() {
+        task.run();
+    }
+
+    @Benchmark
+    public void decorate() {
+        taskDecorator.decorate(task);
+    }
+
+    @Benchmark
+    public void decorateAndRun() {
+        // the previous context of the thread is restored once the task is done
+        ThreadUtil.withContext(task).run();
+    }
+
+    @Benchmark
+    public void wrapWithSnapshot() {
+        snapshot.wrap(task).run();
+    }
+
+    @Benchmark
+    public void restoreContext() {
+        setUpContext();
+    }
+
+    private void setUpContext() {
+        for (int i = 0; i < mdcEntries; i++) {
+            MDC.put("key-" + i, "value-" + i);
+        }
+        if (authenticated) {
+            SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "password"));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.eldar.async.benchmark;
+
+import com.eldar.async.AsyncProperties;
+import com.eldar.async.executor.ExecutorServiceManager;
+import com.eldar.async.list.AsyncListExecution;
+import com.eldar.async.list.PartitionOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Throughput and latency of {@link AsyncListExecution#withPartition} across list sizes, partition sizes,
+ * executor types and workloads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PartitionBenchmark {
+
+    @Param({"1000", "100000"})
+    private int listSize;
+
+    @Param({"10", "100", "1000"})
+    private int partitionSize;
+
+    @Param({"THREAD_POOL", "FORK_JOIN", "VIRTUAL"})
+    private AsyncProperties.ExecutorType executorType;
+
+    @Param({"8"})
+    private int coreSize;
+
+    @Param({"CPU", "BLOCKING"})
+    private BenchmarkSupport.Workload workload;
+
+    private ExecutorServiceManager executorServiceManager;
+    private AsyncListExecution asyncListExecution;
+    private Executor executor;
+    private List<Integer> items;
+    private PartitionOptions options;
+
+    @Setup
+    public void setUp() {
+        executorServiceManager = BenchmarkSupport.newExecutorServiceManager(executorType, coreSize);
+        asyncListExecution = new AsyncListExecution(executorServiceManager);
+        executor = BenchmarkSupport.defaultExecutor(executorServiceManager);
+        items = IntStream.range(0, listSize).boxed().toList();
+        options = PartitionOptions.builder().toThrow(true).timeout(Duration.ofMinutes(1)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorServiceManager.shutdown();
+    }
+
+    @Benchmark
+    public Long withPartition() {
+        return asyncListExecution.withPartition(items,
+                partition -> partition.stream().mapToLong(item -> BenchmarkSupport.process(workload, item)).sum(),
+                partitionSize, executor, results -> results.stream().mapToLong(Long::longValue).sum(), options);
+    }
+
+    @Benchmark
+    public void withPartitionConsumer() {
+        asyncListExecution.withPartition(items,
+                partition -> partition.forEach(item -> BenchmarkSupport.process(workload, item)),
+                partitionSize, executor, options);
+    }
+}
@@ -26,9 +26,24 @@ import java.time.temporal.ChronoUnit;
 @Data
 public class AsyncProperties {
 
+    /**
+     * Type of executor to create.
+     */
+    @NotNull
+    private ExecutorType type = ExecutorType.THREAD_POOL;
+
     @Valid
     private final Pool pool = new Pool();
 
+    @Valid
+    private final VirtualThreads virtualThreads = new VirtualThreads();
+
+    @Valid
+    private final ForkJoin forkJoin = new ForkJoin();
+
+    @Valid
+    private final Partition partition = new Partition();
+
     /**
      * Prefix to use for the names of newly created threads.
      */
@@ -80,5 +95,165 @@ public class AsyncProperties {
          * shrinking of the pool.
          */
         private boolean allowCoreThreadTimeout = false;
+
+        /**
+         * What to do with a task submitted while all the threads are busy and the queue is full.
+         */
+        @NotNull
+        private SaturationPolicy saturationPolicy = SaturationPolicy.ABORT;
+
+        /**
+         * Maximum time to wait for room in the queue with the "BLOCK" saturation policy.
+         */
+        @DurationMin(seconds = 0)
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration blockTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Order in which queued tasks are picked up by the threads.
+         */
+        @NotNull
+        private QueueType queueType = QueueType.FIFO;
+
+        /**
+         * With the "PRIORITY" queue type, the time a queued task waits to gain one priority level, so low priority
+         * tasks are not starved by urgent ones.
+         */
+        @DurationMin(millis = 1)
+        @DurationMax(hours = 1)
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration priorityAgingStep = Duration.ofSeconds(1);
+
+        @Valid
+        private final Autoscaling autoscaling = new Autoscaling();
+    }
+
+    @Data
+    public static class Autoscaling {
+
+        /**
+         * Whether the core size of the pool is adjusted to the observed load.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Lower bound of the core size.
+         */
+        @Min(1)
+        private int minCoreSize = 1;
+
+        /**
+         * Upper bound of the core size, the max size is raised along with the core size when needed.
+         */
+        @Min(1)
+        @Max(1024)
+        private int maxCoreSize = 64;
+
+        /**
+         * Number of threads added or removed at a time.
+         */
+        @Min(1)
+        private int step = 2;
+
+        /**
+         * Time between two adjustments.
+         */
+        @DurationMin(millis = 100)
+        @DurationUnit(ChronoUnit.SECONDS)
+        private Duration interval = Duration.ofSeconds(5);
+
+        /**
+         * Queue utilization, between 0 and 1, above which threads are added.
+         */
+        @DecimalMin("0.0")
+        @DecimalMax("1.0")
+        private double queueUtilizationThreshold = 0.5;
+
+        /**
+         * Estimated time a task waits in the queue above which threads are added.
+         */
+        @DurationMin(millis = 1)
+        @DurationUnit(ChronoUnit.MILLIS)
+        private Duration targetQueueWait = Duration.ofMillis(100);
+    }
+
+    public enum SaturationPolicy {
+        /**
+         * Reject the task, the call fails with a {@link org.springframework.core.task.TaskRejectedException}.
+         */
+        ABORT,
+        /**
+         * Run the task on the submitting thread, which slows down the submission of further tasks.
+         */
+        CALLER_RUNS,
+        /**
+         * Block the submitting thread until there is room in the queue, up to the "block-timeout".
+         * Calls made from a thread of the same pool may wait for the whole timeout, as the pool can't drain.
+         */
+        BLOCK
+    }
+
+    public enum QueueType {
+        /**
+         * Tasks are picked up in submission order.
+         */
+        FIFO,
+        /**
+         * Tasks with a higher priority are picked up first, see
+         * {@link com.eldar.async.list.PartitionOptions#getPriority()}. Waiting tasks gain a priority level every
+         * "priority-aging-step".
+         */
+        PRIORITY
+    }
+
+    public enum ExecutorType {
+        /**
+         * A pool of platform threads configured by the "pool" properties.
+         */
+        THREAD_POOL,
+        /**
+         * A new virtual thread for every task, configured by the "virtual-threads" properties.
+         * Falls back to a new platform thread for every task when virtual threads are not supported by the JVM,
+         * limited to the max pool size unless a concurrency limit is set.
+         */
+        VIRTUAL,
+        /**
+         * A work-stealing fork join pool configured by the "fork-join" properties, suited for CPU bound partitions.
+         * Partitions executed on it are split further while other workers of the pool are idle.
+         */
+        FORK_JOIN
+    }
+
+    @Data
+    public static class VirtualThreads {
+
+        /**
+         * Maximum number of tasks running at the same time, submitting more tasks blocks until one completes.
+         * A value less than 1 means no limit.
+         */
+        private int concurrencyLimit = -1;
+    }
+
+    @Data
+    public static class Partition {
+
+        /**
+         * Maximum number of partitions of a single call running or queued in the executor at the same time, for the
+         * calls that don't set their own. Keeps a large call from taking every thread of a shared executor.
+         * 0 means no limit.
+         */
+        @Min(0)
+        private int maxConcurrency = 0;
+    }
+
+    @Data
+    public static class ForkJoin {
+
+        /**
+         * Number of worker threads. 0 means the number of available processors.
+         */
+        @Min(0)
+        @Max(256)
+        private int parallelism = 0;
     }
-}
\ No newline at end of file
+}
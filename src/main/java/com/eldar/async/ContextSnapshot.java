@@ -0,0 +1,168 @@
+package com.eldar.async;
+
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * An immutable copy of the MDC and the authentication of a thread, to be applied on the threads running its tasks.
+ * <p>
+ * A snapshot is captured once and can be shared by any number of tasks, e.g. all the partitions of a call.
+ * Applying it saves the context of the running thread and restores it once the task is done.
+ * Nothing is applied or restored for an empty snapshot, which is the case when the MDC is empty and there's no
+ * authentication.
+ */
+@Slf4j
+public final class ContextSnapshot {
+
+    public static final ContextSnapshot EMPTY = new ContextSnapshot(null, null);
+
+    private static final Scope NOOP_SCOPE = () -> {
+    };
+
+    private final Map<String, String> contextMap;
+    private final Authentication authentication;
+
+    private ContextSnapshot(Map<String, String> contextMap, Authentication authentication) {
+        this.contextMap = contextMap;
+        this.authentication = authentication;
+    }
+
+    /**
+     * @return the snapshot of the context of the current thread
+     */
+    public static ContextSnapshot capture() {
+        Map<String, String> contextMap = MDC.getCopyOfContextMap();
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean emptyMdc = contextMap == null || contextMap.isEmpty();
+        if (emptyMdc && authentication == null) {
+            return EMPTY;
+        }
+        return new ContextSnapshot(emptyMdc ? null : Collections.unmodifiableMap(contextMap), authentication);
+    }
+
+    public boolean isEmpty() {
+        return contextMap == null && authentication == null;
+    }
+
+    /**
+     * @return the task running with this snapshot, a task that already runs with a snapshot and any task of an empty
+     * snapshot are returned as is
+     */
+    public Runnable wrap(Runnable task) {
+        if (isEmpty() || isContextAware(task)) {
+            return task;
+        }
+        return new ContextAwareRunnable(this, task);
+    }
+
+    /**
+     * Marks a task whose context is already taken care of, so task decorators run it as is instead of capturing the
+     * context of the submitting thread, e.g. a task that applies its own snapshot, or one that runs on behalf of
+     * many threads and shouldn't get the context of whichever of them submits it.
+     */
+    public static Runnable markCaptured(Runnable task) {
+        if (isContextAware(task)) {
+            return task;
+        }
+        return new ContextAwareRunnable(EMPTY, task);
+    }
+
+    /**
+     * @return true if the task runs with a snapshot or was marked as captured, so its context must not be captured
+     * again
+     */
+    public static boolean isContextAware(Runnable task) {
+        return task instanceof ContextAwareRunnable;
+    }
+
+    public <U> Supplier<U> wrap(Supplier<U> supplier) {
+        if (isEmpty()) {
+            return supplier;
+        }
+        return () -> {
+            try (Scope ignored = apply()) {
+                return supplier.get();
+            }
+        };
+    }
+
+    /**
+     * Applies the snapshot on the current thread.
+     *
+     * @return the scope restoring the previous context of the thread once closed
+     */
+    public Scope apply() {
+        if (isEmpty()) {
+            return NOOP_SCOPE;
+        }
+        Map<String, String> previousContextMap = MDC.getCopyOfContextMap();
+        SecurityContext previousSecurityContext = SecurityContextHolder.getContext();
+        setMDCContext(contextMap);
+        // every task gets its own security context, so tasks sharing the snapshot can't change each other's
+        SecurityContext securityContext = SecurityContextHolder.createEmptyContext();
+        securityContext.setAuthentication(authentication);
+        SecurityContextHolder.setContext(securityContext);
+        return () -> restore(previousContextMap, previousSecurityContext);
+    }
+
+    private static void restore(Map<String, String> contextMap, SecurityContext securityContext) {
+        try {
+            setMDCContext(contextMap);
+        } catch (Exception e) {
+            log.warn("Failed to restore MDC context", e);
+        }
+        try {
+            if (securityContext.getAuthentication() == null) {
+                SecurityContextHolder.clearContext();
+            } else {
+                SecurityContextHolder.setContext(securityContext);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to restore Security context", e);
+        }
+    }
+
+    private static void setMDCContext(Map<String, String> contextMap) {
+        if (contextMap == null || contextMap.isEmpty()) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(contextMap);
+        }
+    }
+
+    /**
+     * The context of the thread before a snapshot was applied, restored on close.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * A task that runs with a snapshot, possibly the empty one, task decorators don't need to capture the context
+     * again.
+     */
+    private static final class ContextAwareRunnable implements Runnable {
+        private final ContextSnapshot snapshot;
+        private final Runnable task;
+
+        private ContextAwareRunnable(ContextSnapshot snapshot, Runnable task) {
+            this.snapshot = snapshot;
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            try (Scope ignored = snapshot.apply()) {
+                task.run();
+            }
+        }
+    }
+}
@@ -1,11 +1,9 @@
 package com.eldar.async;
 
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.MDC;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
-import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -20,45 +18,19 @@ public class ThreadUtil {
     public static final int DEFAULT_GET_TIMEOUT = 5 * 1000; // 5 seconds
 
     public static <U> Supplier<U> withContext(Supplier<U> supplier) {
-        Map<String, String> contextMap = MDC.getCopyOfContextMap();
-        SecurityContext securityContextCopy = getCopyOfSecurityContext();
-
-        return () -> {
-            setMDCContext(contextMap);
-            SecurityContextHolder.setContext(securityContextCopy);
-            try {
-                return supplier.get();
-            } finally {
-                clearContext();
-            }
-        };
-    }
-
-    private static void clearContext() {
-        try {
-            MDC.clear();
-        } catch (Exception e) {
-            log.warn("Failed to clear MDC context", e);
-        }
-        try {
-            SecurityContextHolder.clearContext();
-        } catch (Exception e) {
-            log.warn("Failed to clear Security context", e);
-        }
+        return ContextSnapshot.capture().wrap(supplier);
     }
 
+    /**
+     * @return the task running with the context of the current thread, a task that already runs with a
+     * {@link ContextSnapshot} is returned as is
+     */
     public static Runnable withContext(Runnable task) {
-        Map<String, String> contextMap = MDC.getCopyOfContextMap();
-        SecurityContext securityContextCopy = getCopyOfSecurityContext();
-        return () -> {
-            setMDCContext(contextMap);
-            SecurityContextHolder.setContext(securityContextCopy);
-            try {
-                task.run();
-            } finally {
-                clearContext();
-            }
-        };
+        // checked before capturing, so tasks of the partitioned calls don't pay for a capture they don't use
+        if (ContextSnapshot.isContextAware(task)) {
+            return task;
+        }
+        return ContextSnapshot.capture().wrap(task);
     }
 
     public static SecurityContext getCopyOfSecurityContext() {
@@ -80,12 +52,6 @@ public class ThreadUtil {
     }
 
 
-    private static void setMDCContext(Map<String, String> contextMap) {
-        MDC.clear();
-        if (contextMap != null) {
-            MDC.setContextMap(contextMap);
-        }
-    }
     public static <T> T getFromFuture(CompletableFuture<T> future, RuntimeException exceptionToThrow) {
         return getFromFuture(future, exceptionToThrow, DEFAULT_GET_TIMEOUT);
     }
@@ -0,0 +1,187 @@
+package com.eldar.async.batch;
+
+import com.eldar.async.ContextSnapshot;
+import com.eldar.async.executor.ExecutorServiceManager;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Collects single items submitted by many threads into batches, e.g. records to insert with a single statement.
+ * <p>
+ * Items are buffered in a lock-free queue. A batch is handed to the consumer on the executor once the buffer holds
+ * the max batch size, or once the linger time elapsed since the first buffered item, whichever comes first, so an
+ * item waits at most the linger time when the load is low. Every item gets a future that completes when its batch
+ * was consumed, exceptionally if the consumer failed on it.
+ * <p>
+ * The items of a batch come from different threads, so the batches run without the context of any of them.
+ *
+ * @param <T> - the type of the items
+ */
+@Slf4j
+public class AsyncBatcher<T> implements AutoCloseable {
+
+    private final Consumer<List<T>> consumer;
+    private final int maxBatchSize;
+    private final Duration linger;
+    private final Executor executor;
+    private final ConcurrentLinkedQueue<Item<T>> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final AtomicBoolean lingerScheduled = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * @param consumer     - consumes a batch of items, e.g. inserts them with a single statement
+     * @param maxBatchSize - the maximum number of items in a batch, a full batch is consumed right away
+     * @param linger       - the maximum time an item waits for its batch to fill up
+     * @param executor     - the executor consuming the batches
+     */
+    public AsyncBatcher(Consumer<List<T>> consumer, int maxBatchSize, Duration linger, Executor executor) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer must not be null");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be greater than 0");
+        }
+        if (linger == null || linger.isNegative() || linger.isZero()) {
+            throw new IllegalArgumentException("Linger must be greater than 0");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        this.consumer = consumer;
+        this.maxBatchSize = maxBatchSize;
+        this.linger = linger;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates a batcher consuming the batches on the default executor of the manager.
+     */
+    public AsyncBatcher(Consumer<List<T>> consumer, int maxBatchSize, Duration linger,
+                        ExecutorServiceManager executorServiceManager) {
+        this(consumer, maxBatchSize, linger, executorServiceManager.getDefaultExecutor());
+    }
+
+    /**
+     * @param item - the item to add to the next batch
+     * @return a future that completes once the batch of the item was consumed
+     */
+    public CompletableFuture<Void> submit(T item) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Batcher is closed"));
+        }
+        Item<T> bufferedItem = new Item<>(item, new CompletableFuture<>());
+        buffer.add(bufferedItem);
+        buffered.incrementAndGet();
+        while (claim(maxBatchSize) > 0) {
+            dispatch(maxBatchSize);
+        }
+        if (closed) {
+            // close() may have flushed before the item was counted
+            flush();
+        } else if (buffered.get() > 0) {
+            scheduleLinger();
+        }
+        return bufferedItem.future();
+    }
+
+    /**
+     * Hands all the buffered items to the consumer, without waiting for the batches to fill up.
+     */
+    public void flush() {
+        int count;
+        while ((count = claim(1)) > 0) {
+            dispatch(count);
+        }
+    }
+
+    /**
+     * @return the number of items waiting for their batch to be dispatched
+     */
+    public int getBufferedCount() {
+        return buffered.get();
+    }
+
+    /**
+     * Rejects further items and flushes the buffered ones.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        flush();
+    }
+
+    // a single timer is pending at a time, it's scheduled again by the submit that leaves items behind
+    private void scheduleLinger() {
+        if (lingerScheduled.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(linger.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                lingerScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Claims a batch of the buffered items, so every item is dispatched by exactly one batch.
+     *
+     * @param minSize - the minimum number of buffered items to claim a batch
+     * @return the number of claimed items, at most the max batch size, 0 if fewer than the minimum are buffered
+     */
+    private int claim(int minSize) {
+        while (true) {
+            int count = buffered.get();
+            if (count < minSize) {
+                return 0;
+            }
+            int claimed = Math.min(count, maxBatchSize);
+            if (buffered.compareAndSet(count, count - claimed)) {
+                return claimed;
+            }
+        }
+    }
+
+    private void dispatch(int count) {
+        // an item is added to the buffer before it's counted, so the claimed items are always in the buffer
+        try {
+            executor.execute(ContextSnapshot.markCaptured(() -> consumeBatch(drain(count))));
+        } catch (RejectedExecutionException e) {
+            List<Item<T>> batch = drain(count);
+            log.warn("Batch of {} items was rejected by the executor: {}", batch.size(), e.getMessage());
+            batch.forEach(item -> item.future().completeExceptionally(e));
+        }
+    }
+
+    private void consumeBatch(List<Item<T>> batch) {
+        List<T> items = new ArrayList<>(batch.size());
+        batch.forEach(item -> items.add(item.value()));
+        try {
+            consumer.accept(items);
+            batch.forEach(item -> item.future().complete(null));
+        } catch (Exception e) {
+            log.warn("Batch of {} items failed: {}", batch.size(), e.getMessage());
+            batch.forEach(item -> item.future().completeExceptionally(e));
+        }
+    }
+
+    private List<Item<T>> drain(int count) {
+        List<Item<T>> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(buffer.poll());
+        }
+        return batch;
+    }
+
+    private record Item<T>(T value, CompletableFuture<Void> future) {
+    }
+}
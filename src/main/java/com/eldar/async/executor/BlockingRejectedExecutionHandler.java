@@ -0,0 +1,51 @@
+package com.eldar.async.executor;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocks the submitting thread until there is room in the queue of the executor, so large calls throttle themselves
+ * instead of failing. The task is rejected if there is still no room once the timeout elapses, or if the executor was
+ * shut down before the task was picked up.
+ */
+@Slf4j
+public class BlockingRejectedExecutionHandler implements RejectedExecutionHandler {
+
+    private final Duration timeout;
+
+    public BlockingRejectedExecutionHandler(Duration timeout) {
+        if (timeout == null || timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Executor " + executor + " is shut down");
+        }
+        try {
+            if (!executor.getQueue().offer(task, timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("Executor queue is still full after waiting " + timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in the executor queue", e);
+        }
+        // the task bypassed execute, so the checks execute makes after queueing a task are repeated here
+        if (executor.isShutdown() && executor.remove(task)) {
+            throw new RejectedExecutionException("Executor " + executor + " was shut down while waiting for room");
+        }
+        if (executor.getPoolSize() == 0) {
+            // the workers may have timed out meanwhile, the queued task would wait for the next submission otherwise
+            executor.prestartCoreThread();
+        }
+        log.trace("Task was queued after waiting for room in the executor queue");
+    }
+}
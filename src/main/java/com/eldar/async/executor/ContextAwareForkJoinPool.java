@@ -0,0 +1,60 @@
+package com.eldar.async.executor;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.lang.NonNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A work-stealing {@link ForkJoinPool} that applies a {@link TaskDecorator} to the runnables submitted to it,
+ * the same way {@link org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor} does.
+ * Tasks forked from within the pool are not decorated, they should propagate the context themselves.
+ */
+public class ContextAwareForkJoinPool extends ForkJoinPool {
+
+    private volatile TaskDecorator taskDecorator;
+
+    public ContextAwareForkJoinPool(int parallelism, String threadNamePrefix, TaskDecorator taskDecorator) {
+        super(parallelism, new NamedWorkerThreadFactory(threadNamePrefix), null, false);
+        this.taskDecorator = taskDecorator;
+    }
+
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        this.taskDecorator = taskDecorator;
+    }
+
+    @Override
+    public void execute(@NonNull Runnable task) {
+        super.execute(decorate(task));
+    }
+
+    @Override
+    @NonNull
+    public ForkJoinTask<?> submit(@NonNull Runnable task) {
+        return super.submit(decorate(task));
+    }
+
+    private Runnable decorate(Runnable task) {
+        TaskDecorator decorator = taskDecorator;
+        return decorator != null ? decorator.decorate(task) : task;
+    }
+
+    private static class NamedWorkerThreadFactory implements ForkJoinWorkerThreadFactory {
+        private final String threadNamePrefix;
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        NamedWorkerThreadFactory(String threadNamePrefix) {
+            this.threadNamePrefix = threadNamePrefix;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(threadNamePrefix + threadCount.incrementAndGet());
+            return thread;
+        }
+    }
+}
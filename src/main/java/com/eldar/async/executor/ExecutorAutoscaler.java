@@ -0,0 +1,120 @@
+package com.eldar.async.executor;
+
+import com.eldar.async.AsyncProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts the core size of a pool to the observed load, within the configured bounds.
+ * <p>
+ * On every adjustment the queue utilization, the completed tasks per second and the estimated queue wait are sampled.
+ * The queue wait is estimated from the queue size and the throughput (Little's law). Threads are added when the queue
+ * utilization or the estimated queue wait is above the threshold, unless the previous addition didn't raise the
+ * throughput, e.g. when a downstream system is the bottleneck. Threads are removed when the queue is empty and
+ * enough threads are idle.
+ */
+@Slf4j
+class ExecutorAutoscaler implements Runnable {
+
+    // throughput gain that justifies adding more threads after the previous addition
+    static final double MIN_THROUGHPUT_GAIN = 0.05;
+
+    private final String name;
+    private final ResizableThreadPoolTaskExecutor executor;
+    private final AsyncProperties.Autoscaling autoscaling;
+
+    private long lastSampleNanos = System.nanoTime();
+    private long lastCompletedTasks;
+    private double lastThroughput;
+    private boolean lastScaledUp;
+
+    ExecutorAutoscaler(String name, ResizableThreadPoolTaskExecutor executor, AsyncProperties.Autoscaling autoscaling) {
+        validate(name, executor, autoscaling);
+        this.name = name;
+        this.executor = executor;
+        this.autoscaling = autoscaling;
+    }
+
+    @Override
+    public void run() {
+        try {
+            adjust();
+        } catch (RuntimeException e) { // an exception would cancel the scheduled adjustments
+            log.warn("Failed to autoscale executor {}, retrying on the next adjustment", name, e);
+        }
+    }
+
+    // the properties of a programmatically created executor are not bean validated, and bounds that don't fit the
+    // pool would make the autoscaler shrink a loaded pool or grow an idle one
+    private static void validate(String name, ResizableThreadPoolTaskExecutor executor,
+                                 AsyncProperties.Autoscaling autoscaling) {
+        if (autoscaling.getMinCoreSize() < 1) {
+            throw new IllegalArgumentException("Autoscaling min core size of executor " + name
+                    + " must be greater than 0");
+        }
+        if (autoscaling.getMaxCoreSize() < autoscaling.getMinCoreSize()) {
+            throw new IllegalArgumentException("Autoscaling max core size of executor " + name
+                    + " must not be less than the min core size");
+        }
+        if (autoscaling.getStep() < 1) {
+            throw new IllegalArgumentException("Autoscaling step of executor " + name + " must be greater than 0");
+        }
+        if (autoscaling.getInterval() == null || autoscaling.getInterval().isNegative()
+                || autoscaling.getInterval().isZero()) {
+            throw new IllegalArgumentException("Autoscaling interval of executor " + name + " must be greater than 0");
+        }
+        if (autoscaling.getTargetQueueWait() == null || autoscaling.getTargetQueueWait().isNegative()) {
+            throw new IllegalArgumentException("Autoscaling target queue wait of executor " + name
+                    + " must not be negative");
+        }
+        int coreSize = executor.getCorePoolSize();
+        if (coreSize < autoscaling.getMinCoreSize() || coreSize > autoscaling.getMaxCoreSize()) {
+            throw new IllegalArgumentException("Core size " + coreSize + " of executor " + name
+                    + " must be between the autoscaling min core size " + autoscaling.getMinCoreSize()
+                    + " and max core size " + autoscaling.getMaxCoreSize());
+        }
+        if (executor.getMaxPoolSize() < coreSize) {
+            throw new IllegalArgumentException("Max size " + executor.getMaxPoolSize() + " of executor " + name
+                    + " must not be less than its core size " + coreSize);
+        }
+    }
+
+    synchronized void adjust() {
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        long now = System.nanoTime();
+        long completedTasks = pool.getCompletedTaskCount();
+        double elapsedSeconds = Math.max(1e-9, (now - lastSampleNanos) / 1e9);
+        double throughput = (completedTasks - lastCompletedTasks) / elapsedSeconds;
+        int queued = pool.getQueue().size();
+        double utilization = (double) queued / executor.getQueueCapacity();
+        double estimatedQueueWaitNanos = queued == 0 ? 0
+                : throughput > 0 ? queued / throughput * TimeUnit.SECONDS.toNanos(1) : Double.MAX_VALUE;
+        int coreSize = pool.getCorePoolSize();
+
+        int targetCoreSize = coreSize;
+        boolean overloaded = queued > 0 && (utilization >= autoscaling.getQueueUtilizationThreshold()
+                || estimatedQueueWaitNanos > autoscaling.getTargetQueueWait().toNanos());
+        if (overloaded) {
+            boolean lastScaleUpHelped = !lastScaledUp || throughput > lastThroughput * (1 + MIN_THROUGHPUT_GAIN);
+            if (lastScaleUpHelped) {
+                targetCoreSize = Math.min(autoscaling.getMaxCoreSize(), coreSize + autoscaling.getStep());
+            }
+        } else if (queued == 0 && coreSize - pool.getActiveCount() > autoscaling.getStep()) {
+            targetCoreSize = Math.max(autoscaling.getMinCoreSize(), coreSize - autoscaling.getStep());
+        }
+
+        if (targetCoreSize != coreSize) {
+            log.info("Autoscaling executor {}: core size {} -> {} (queued {}, utilization {}, throughput {}/s)",
+                    name, coreSize, targetCoreSize, queued, String.format("%.2f", utilization),
+                    String.format("%.1f", throughput));
+            executor.resize(targetCoreSize, Math.max(targetCoreSize, executor.getMaxPoolSize()),
+                    executor.getQueueCapacity());
+        }
+        lastScaledUp = targetCoreSize > coreSize;
+        lastSampleNanos = now;
+        lastCompletedTasks = completedTasks;
+        lastThroughput = throughput;
+    }
+}
@@ -5,9 +5,17 @@ import com.eldar.async.decorator.TaskDecoratorResolver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+
 
 @Service
 @Slf4j
@@ -17,25 +25,115 @@ public class ExecutorFactory {
     private final AsyncProperties asyncProperties;
     private final TaskDecoratorResolver taskDecoratorResolver;
 
+    public AsyncProperties getAsyncProperties() {
+        return asyncProperties;
+    }
+
+    public TaskDecorator getTaskDecorator() {
+        return taskDecoratorResolver.getTaskDecorator();
+    }
+
     public ThreadPoolTaskExecutor newTaskExecutor() {
         return newTaskExecutor(asyncProperties);
     }
 
+    /**
+     * Creates a thread pool, whatever the executor type of the properties, see {@link #newExecutor(AsyncProperties)}.
+     */
     public ThreadPoolTaskExecutor newTaskExecutor(AsyncProperties asyncProperties) {
+        return newThreadPoolExecutor(asyncProperties != null ? asyncProperties : this.asyncProperties);
+    }
+
+    public Executor newExecutor() {
+        return newExecutor(asyncProperties);
+    }
+
+    /**
+     * Creates an executor of the type of the properties - a thread pool, a virtual thread per task executor or a
+     * fork join pool.
+     */
+    public Executor newExecutor(AsyncProperties asyncProperties) {
         AsyncProperties finalAsyncProperties = asyncProperties != null ? asyncProperties : this.asyncProperties;
+        return switch (finalAsyncProperties.getType()) {
+            case VIRTUAL -> newVirtualThreadExecutor(finalAsyncProperties);
+            case FORK_JOIN -> newForkJoinPool(finalAsyncProperties);
+            default -> newThreadPoolExecutor(finalAsyncProperties);
+        };
+    }
+
+    public ThreadPoolTaskExecutor newThreadPoolExecutor(AsyncProperties asyncProperties) {
         log.info("Creating a new task pool with following properties: {}", asyncProperties);
-        ThreadPoolTaskExecutor executor = new TaskExecutorBuilder()
-                .corePoolSize(finalAsyncProperties.getPool().getCoreSize())
-                .maxPoolSize(finalAsyncProperties.getPool().getMaxCoreSize())
-                .queueCapacity(finalAsyncProperties.getPool().getQueueCapacity())
-                .keepAlive(finalAsyncProperties.getPool().getKeepAliveTimeInSec())
-                .allowCoreThreadTimeOut(finalAsyncProperties.getPool().isAllowCoreThreadTimeout())
-                .threadNamePrefix(finalAsyncProperties.getThreadNamePrefix())
+        ResizableThreadPoolTaskExecutor executor = new TaskExecutorBuilder()
+                .corePoolSize(asyncProperties.getPool().getCoreSize())
+                .maxPoolSize(asyncProperties.getPool().getMaxCoreSize())
+                .queueCapacity(asyncProperties.getPool().getQueueCapacity())
+                .keepAlive(asyncProperties.getPool().getKeepAliveTimeInSec())
+                .allowCoreThreadTimeOut(asyncProperties.getPool().isAllowCoreThreadTimeout())
+                .threadNamePrefix(asyncProperties.getThreadNamePrefix())
                 .taskDecorator(taskDecoratorResolver.getTaskDecorator())
-                .build();
+                .build(ResizableThreadPoolTaskExecutor.class);
+        executor.setRejectedExecutionHandler(newRejectedExecutionHandler(asyncProperties.getPool()));
+        if (asyncProperties.getPool().getQueueType() == AsyncProperties.QueueType.PRIORITY) {
+            executor.setPriorityAgingStep(asyncProperties.getPool().getPriorityAgingStep());
+        }
 
         executor.initialize();
         return executor;
     }
 
+    private RejectedExecutionHandler newRejectedExecutionHandler(AsyncProperties.Pool pool) {
+        return switch (pool.getSaturationPolicy()) {
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case BLOCK -> new BlockingRejectedExecutionHandler(pool.getBlockTimeout());
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+        };
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for every task, optionally limiting the number of
+     * concurrent tasks. Uses platform threads when the JVM doesn't support virtual threads, limited to the max pool
+     * size unless a concurrency limit is set, so a burst of tasks can't start an unbounded number of OS threads.
+     */
+    public SimpleAsyncTaskExecutor newVirtualThreadExecutor(AsyncProperties asyncProperties) {
+        log.info("Creating a new virtual thread executor with following properties: {}", asyncProperties);
+        String threadNamePrefix = asyncProperties.getThreadNamePrefix();
+        ThreadFactory threadFactory = newVirtualThreadFactory(threadNamePrefix);
+        int concurrencyLimit = asyncProperties.getVirtualThreads().getConcurrencyLimit();
+        if (threadFactory == null) {
+            threadFactory = new CustomizableThreadFactory(threadNamePrefix);
+            if (concurrencyLimit <= 0) {
+                concurrencyLimit = asyncProperties.getPool().getMaxCoreSize();
+            }
+            log.warn("Virtual threads are not supported by this JVM, using a new platform thread for every task, "
+                    + "at most {} at a time", concurrencyLimit);
+        }
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadFactory);
+        executor.setConcurrencyLimit(concurrencyLimit > 0 ? concurrencyLimit : SimpleAsyncTaskExecutor.UNBOUNDED_CONCURRENCY);
+        executor.setTaskDecorator(taskDecoratorResolver.getTaskDecorator());
+        return executor;
+    }
+
+    /**
+     * Creates a work-stealing fork join pool that applies the task decorator to the submitted tasks.
+     */
+    public ContextAwareForkJoinPool newForkJoinPool(AsyncProperties asyncProperties) {
+        log.info("Creating a new fork join pool with following properties: {}", asyncProperties);
+        int parallelism = asyncProperties.getForkJoin().getParallelism();
+        return new ContextAwareForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+                asyncProperties.getThreadNamePrefix(), taskDecoratorResolver.getTaskDecorator());
+    }
+
+    // Thread.ofVirtual() is only available from Java 21, it is looked up at runtime as the project targets Java 17.
+    // returns null if virtual threads are not supported
+    private ThreadFactory newVirtualThreadFactory(String threadNamePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 1L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
 }
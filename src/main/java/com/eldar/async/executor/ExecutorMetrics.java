@@ -0,0 +1,128 @@
+package com.eldar.async.executor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Micrometer metrics of an executor managed by {@link ExecutorServiceManager}, tagged by the executor name.
+ * <ul>
+ *     <li>executor.pool.size, executor.pool.core, executor.pool.max, executor.active, executor.queued,
+ *     executor.queue.remaining and executor.completed - the state of the pool</li>
+ *     <li>executor.rejected - the number of rejected submissions</li>
+ *     <li>executor.idle - the time a task waited in the queue</li>
+ *     <li>executor - the time a task took to run</li>
+ * </ul>
+ * A {@link FairQueuingExecutor} reports its own executor.queued, executor.active and executor.rejected, its tasks are
+ * timed by its delegate.
+ */
+@Slf4j
+class ExecutorMetrics {
+
+    static final String NAME_TAG = "name";
+    static final String METRIC_PREFIX = "executor";
+
+    private final String name;
+    private final MeterRegistry meterRegistry;
+
+    private ExecutorMetrics(String name, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Registers the metrics of the executor.
+     *
+     * @param name          - the executor name
+     * @param executor      - the executor
+     * @param taskDecorator - the task decorator the executor was created with, the timing is applied on top of it
+     * @param meterRegistry - the registry to register the metrics in
+     * @return the registered metrics
+     */
+    static ExecutorMetrics bind(String name, Executor executor, TaskDecorator taskDecorator,
+                                MeterRegistry meterRegistry) {
+        ExecutorMetrics metrics = new ExecutorMetrics(name, meterRegistry);
+        Tags tags = Tags.of(NAME_TAG, name);
+        Timer queueWaitTimer = Timer.builder(METRIC_PREFIX + ".idle")
+                .description("Time the task waited in the queue of the executor")
+                .tags(tags)
+                .register(meterRegistry);
+        Timer executionTimer = Timer.builder(METRIC_PREFIX)
+                .description("Time the task took to run")
+                .tags(tags)
+                .register(meterRegistry);
+        TimedTaskDecorator timedTaskDecorator = new TimedTaskDecorator(taskDecorator, queueWaitTimer, executionTimer);
+
+        if (executor instanceof ThreadPoolTaskExecutor threadPoolTaskExecutor) {
+            ThreadPoolExecutor threadPoolExecutor = threadPoolTaskExecutor.getThreadPoolExecutor();
+            new ExecutorServiceMetrics(threadPoolExecutor, name, Tags.empty()).bindTo(meterRegistry);
+            threadPoolExecutor.setRejectedExecutionHandler(
+                    countRejections(threadPoolExecutor.getRejectedExecutionHandler(), tags, meterRegistry));
+            // the executor reads the decorator on every submission, so it can be replaced after initialization
+            threadPoolTaskExecutor.setTaskDecorator(timedTaskDecorator);
+        } else if (executor instanceof ContextAwareForkJoinPool forkJoinPool) {
+            new ExecutorServiceMetrics(forkJoinPool, name, Tags.empty()).bindTo(meterRegistry);
+            forkJoinPool.setTaskDecorator(timedTaskDecorator);
+        } else if (executor instanceof FairQueuingExecutor fairQueuingExecutor) {
+            // the tasks are timed by the delegate, only the fair queue itself is reported under this name
+            bindFairQueue(fairQueuingExecutor, tags, meterRegistry);
+        } else if (executor instanceof SimpleAsyncTaskExecutor simpleAsyncTaskExecutor) {
+            simpleAsyncTaskExecutor.setTaskDecorator(timedTaskDecorator);
+        } else {
+            log.warn("Metrics are not supported for executor {} of type {}", name, executor.getClass().getName());
+        }
+        return metrics;
+    }
+
+    /**
+     * Removes the metrics of the executor from the registry.
+     */
+    void unbind() {
+        List<Meter> meters = meterRegistry.getMeters().stream()
+                .filter(meter -> meter.getId().getName().startsWith(METRIC_PREFIX))
+                .filter(meter -> name.equals(meter.getId().getTag(NAME_TAG)))
+                .toList();
+        meters.forEach(meterRegistry::remove);
+    }
+
+    private static void bindFairQueue(FairQueuingExecutor executor, Tags tags, MeterRegistry meterRegistry) {
+        Gauge.builder(METRIC_PREFIX + ".queued", executor, FairQueuingExecutor::getQueuedCount)
+                .description("Number of tasks waiting for their turn to be handed to the delegate executor")
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", executor, FairQueuingExecutor::getInFlightCount)
+                .description("Number of tasks handed to the delegate executor and not completed")
+                .tags(tags)
+                .register(meterRegistry);
+        FunctionCounter.builder(METRIC_PREFIX + ".rejected", executor, FairQueuingExecutor::getRejectedCount)
+                .description("Number of tasks rejected by the delegate executor")
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private static RejectedExecutionHandler countRejections(RejectedExecutionHandler delegate, Tags tags,
+                                                            MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Number of tasks rejected by the executor")
+                .tags(tags)
+                .register(meterRegistry);
+        return (task, executor) -> {
+            rejected.increment();
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+}
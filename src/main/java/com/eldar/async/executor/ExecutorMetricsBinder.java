@@ -0,0 +1,22 @@
+package com.eldar.async.executor;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Registers the metrics of the executors of an {@link ExecutorServiceManager}, so the manager doesn't depend on a
+ * metrics library. {@link MicrometerExecutorMetricsBinder} registers them in a Micrometer registry.
+ */
+public interface ExecutorMetricsBinder {
+
+    /**
+     * Registers the metrics of the executor.
+     *
+     * @param name          - the executor name
+     * @param executor      - the executor
+     * @param taskDecorator - the task decorator the executor was created with
+     * @return removes the metrics of the executor once run
+     */
+    Runnable bind(String name, Executor executor, TaskDecorator taskDecorator);
+}
@@ -0,0 +1,38 @@
+package com.eldar.async.executor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Registers a {@link MicrometerExecutorMetricsBinder} for the {@link MeterRegistry} bean of the application with the
+ * {@link ExecutorServiceManager}.
+ * <p>
+ * Micrometer is an optional dependency. The condition is evaluated from the class metadata, so without micrometer
+ * on the classpath this class is never loaded, and the manager only knows the {@link ExecutorMetricsBinder}.
+ */
+@Component
+@Conditional(ExecutorMetricsConfigurer.MicrometerPresent.class)
+class ExecutorMetricsConfigurer {
+
+    ExecutorMetricsConfigurer(ExecutorServiceManager executorServiceManager,
+                              ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry ->
+                executorServiceManager.setMetricsBinder(new MicrometerExecutorMetricsBinder(registry)));
+    }
+
+    // the equivalent of @ConditionalOnClass, spring-boot-autoconfigure isn't a dependency
+    static class MicrometerPresent implements Condition {
+
+        @Override
+        public boolean matches(@NonNull ConditionContext context, @NonNull AnnotatedTypeMetadata metadata) {
+            return ClassUtils.isPresent("io.micrometer.core.instrument.MeterRegistry", context.getClassLoader());
+        }
+    }
+}
@@ -6,12 +6,19 @@ import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -21,11 +28,39 @@ public class ExecutorServiceManager {
 
     public static final String DEFAULT_EXECUTOR = "default";
     private final ExecutorFactory executorFactory;
-    private final ConcurrentHashMap<String, ThreadPoolTaskExecutor> executorMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Executor> executorMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Runnable> executorMetricsMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ScheduledFuture<?>> autoscalerMap = new ConcurrentHashMap<>();
+    private ScheduledExecutorService autoscalingScheduler; // guarded by this
+    private volatile ExecutorMetricsBinder metricsBinder;
 
     @PostConstruct
     public void init() {
-        executorMap.put(DEFAULT_EXECUTOR, executorFactory.newTaskExecutor());
+        Executor executor = withAutoscaling(DEFAULT_EXECUTOR, executorFactory.newExecutor(), null);
+        executorMap.put(DEFAULT_EXECUTOR, executor);
+        bindMetrics(DEFAULT_EXECUTOR, executor);
+    }
+
+    /**
+     * Metrics are registered for every executor once a binder is set, including the executors created before.
+     * In a Spring context a {@link MicrometerExecutorMetricsBinder} is set by {@link ExecutorMetricsConfigurer}.
+     *
+     * @param metricsBinder - registers the metrics of an executor
+     */
+    public void setMetricsBinder(ExecutorMetricsBinder metricsBinder) {
+        this.metricsBinder = metricsBinder;
+        executorMap.forEach((name, executor) -> {
+            if (!executorMetricsMap.containsKey(name)) {
+                bindMetrics(name, executor);
+            }
+        });
+    }
+
+    /**
+     * @return the binder the metrics are registered with, null if none
+     */
+    public ExecutorMetricsBinder getMetricsBinder() {
+        return metricsBinder;
     }
 
     @PreDestroy
@@ -33,6 +68,13 @@ public class ExecutorServiceManager {
         shutdown();
     }
 
+    /**
+     * @return the properties of the executors created without their own properties
+     */
+    public AsyncProperties getAsyncProperties() {
+        return executorFactory.getAsyncProperties();
+    }
+
     public Executor getDefaultExecutor() {
         Executor executor = executorMap.get(DEFAULT_EXECUTOR);
         if (executor == null) {
@@ -45,6 +87,19 @@ public class ExecutorServiceManager {
         return executorMap.get(name);
     }
 
+    /**
+     * @param executor - the executor
+     * @return the name of the executor, or null if it isn't managed by this manager
+     */
+    public String getExecutorName(Executor executor) {
+        for (Map.Entry<String, Executor> entry : executorMap.entrySet()) {
+            if (entry.getValue() == executor) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
     /**
      *  Create a new executor with the given name
      * @param name - executor name
@@ -63,26 +118,151 @@ public class ExecutorServiceManager {
             log.warn("Executor with name {} already exists, returning existing executor", name);
             return executorMap.get(name);
         }
-        ThreadPoolTaskExecutor executor = executorFactory.newTaskExecutor(asyncProperties);
-        ThreadPoolTaskExecutor oldExecutor = executorMap.put(name, executor);
+        Executor executor = withAutoscaling(name, executorFactory.newExecutor(asyncProperties), asyncProperties);
+        Executor oldExecutor = executorMap.put(name, executor);
         if (oldExecutor != null) { // should never happen
             log.error("Shutting down old executor as it was overridden");
-            oldExecutor.shutdown();
+            shutdown(oldExecutor);
         }
+        bindMetrics(name, executor);
         return executor;
     }
 
+    /**
+     * Create a new executor with the given name, sharing the default executor fairly between keys, e.g. tenants.
+     * See {@link FairQueuingExecutor}. Its metrics report the fair queue, the tasks themselves are timed by the
+     * default executor.
+     *
+     * @param name           - executor name
+     * @param maxConcurrency - the maximum number of tasks handed to the default executor at the same time
+     */
+    public FairQueuingExecutor newFairQueuingExecutor(String name, int maxConcurrency) {
+        if (!StringUtils.hasText(name) || DEFAULT_EXECUTOR.equals(name)) {
+            throw new IllegalArgumentException("Executor name must not be empty or default");
+        }
+        Executor executor = executorMap.computeIfAbsent(name, key -> {
+            FairQueuingExecutor fairQueuingExecutor = new FairQueuingExecutor(getDefaultExecutor(), maxConcurrency);
+            bindMetrics(key, fairQueuingExecutor);
+            return fairQueuingExecutor;
+        });
+        if (!(executor instanceof FairQueuingExecutor fairQueuingExecutor)) {
+            throw new IllegalArgumentException("Executor " + name + " already exists and is not a fair queuing executor");
+        }
+        return fairQueuingExecutor;
+    }
+
+    /**
+     * Resizes a thread pool executor while it's running. The sizes are not limited by the bounds of the
+     * {@link AsyncProperties} validation. With autoscaling enabled, the core size keeps being adjusted afterwards.
+     *
+     * @param name          - executor name
+     * @param coreSize      - the new core number of threads
+     * @param maxSize       - the new maximum number of threads, not less than the core size
+     * @param queueCapacity - the new queue capacity
+     */
+    public void resize(String name, int coreSize, int maxSize, int queueCapacity) {
+        Executor executor = executorMap.get(name);
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor " + name + " does not exist");
+        }
+        if (!(executor instanceof ResizableThreadPoolTaskExecutor resizableExecutor)) {
+            throw new IllegalArgumentException("Executor " + name + " of type " + executor.getClass().getSimpleName()
+                    + " can't be resized");
+        }
+        log.info("Resizing executor {}: core size {}, max size {}, queue capacity {}", name, coreSize, maxSize,
+                queueCapacity);
+        resizableExecutor.resize(coreSize, maxSize, queueCapacity);
+    }
+
     // init default executor
     public Executor initExecutor() {
         return executorMap.computeIfAbsent(DEFAULT_EXECUTOR, key -> {
             log.info("Initializing default executor");
-            ThreadPoolTaskExecutor executor = executorFactory.newTaskExecutor();
+            Executor executor = withAutoscaling(key, executorFactory.newExecutor(), null);
+            bindMetrics(key, executor);
             return executor;
         });
     }
 
     public void shutdown() {
-        executorMap.values().forEach(ThreadPoolTaskExecutor::shutdown);
+        stopAutoscaling();
+        executorMap.values().forEach(this::shutdown);
         executorMap.clear();
+        executorMetricsMap.values().forEach(Runnable::run);
+        executorMetricsMap.clear();
+    }
+
+    private void bindMetrics(String name, Executor executor) {
+        ExecutorMetricsBinder metricsBinder = this.metricsBinder;
+        if (metricsBinder == null || executor == null) {
+            return;
+        }
+        Runnable oldMetrics = executorMetricsMap.remove(name);
+        if (oldMetrics != null) {
+            oldMetrics.run();
+        }
+        try {
+            executorMetricsMap.put(name, metricsBinder.bind(name, executor, executorFactory.getTaskDecorator()));
+        } catch (RuntimeException e) {
+            log.warn("Failed to register metrics for executor {}: {}", name, e.getMessage());
+        }
+    }
+
+    // the autoscaling is started before the executor is registered, so an executor with invalid autoscaling
+    // properties fails fast and is never handed out
+    private Executor withAutoscaling(String name, Executor executor, AsyncProperties asyncProperties) {
+        try {
+            startAutoscaling(name, executor, asyncProperties);
+        } catch (RuntimeException e) {
+            shutdown(executor);
+            throw e;
+        }
+        return executor;
+    }
+
+    private void startAutoscaling(String name, Executor executor, AsyncProperties asyncProperties) {
+        AsyncProperties properties = asyncProperties != null ? asyncProperties : executorFactory.getAsyncProperties();
+        if (properties == null || !properties.getPool().getAutoscaling().isEnabled()
+                || !(executor instanceof ResizableThreadPoolTaskExecutor resizableExecutor)) {
+            return;
+        }
+        AsyncProperties.Autoscaling autoscaling = properties.getPool().getAutoscaling();
+        ExecutorAutoscaler executorAutoscaler = new ExecutorAutoscaler(name, resizableExecutor, autoscaling);
+        long intervalMillis = autoscaling.getInterval().toMillis();
+        ScheduledFuture<?> autoscaler = getAutoscalingScheduler().scheduleWithFixedDelay(executorAutoscaler,
+                intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        ScheduledFuture<?> oldAutoscaler = autoscalerMap.put(name, autoscaler);
+        if (oldAutoscaler != null) {
+            oldAutoscaler.cancel(false);
+        }
+        log.info("Autoscaling executor {} every {} with core size between {} and {}", name, autoscaling.getInterval(),
+                autoscaling.getMinCoreSize(), autoscaling.getMaxCoreSize());
+    }
+
+    private synchronized ScheduledExecutorService getAutoscalingScheduler() {
+        if (autoscalingScheduler == null) {
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("async-autoscaler-");
+            threadFactory.setDaemon(true);
+            autoscalingScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        }
+        return autoscalingScheduler;
+    }
+
+    private synchronized void stopAutoscaling() {
+        autoscalerMap.values().forEach(autoscaler -> autoscaler.cancel(false));
+        autoscalerMap.clear();
+        if (autoscalingScheduler != null) {
+            autoscalingScheduler.shutdown();
+            autoscalingScheduler = null;
+        }
+    }
+
+    private void shutdown(Executor executor) {
+        if (executor instanceof ThreadPoolTaskExecutor threadPoolTaskExecutor) {
+            threadPoolTaskExecutor.shutdown();
+        } else if (executor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+        // thread per task executors have nothing to shut down
     }
 }
@@ -0,0 +1,328 @@
+package com.eldar.async.executor;
+
+import com.eldar.async.ContextSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Shares a delegate executor fairly between keys, e.g. tenants, instead of in submission order.
+ * <p>
+ * Tasks are queued per key and handed to the delegate only while fewer than the max concurrency are in flight, so
+ * the delegate queue never holds a backlog of a single key. The next task is picked by deficit round-robin over the
+ * keys with queued tasks: every key gets its weight worth of tasks per round, so a key with a large job can't starve
+ * the keys with a few tasks, while it still uses all the capacity the other keys leave idle. A key can also be
+ * capped to a maximum number of tasks in flight.
+ * <p>
+ * Use {@link #forKey(String)} to get the executor of a key, e.g. to pass to
+ * {@link com.eldar.async.list.AsyncListExecutor} calls.
+ * <p>
+ * A task rejected by the delegate is handed to the rejected task handler instead of running, by default a rejected
+ * {@link Future} is cancelled. The dispatching stops until the next task is submitted or completed, unless the
+ * delegate was shut down, in which case all the queued tasks are rejected and no further tasks are accepted.
+ */
+@Slf4j
+public class FairQueuingExecutor implements Executor {
+
+    public static final String DEFAULT_KEY = "default";
+
+    private final Executor delegate;
+    private final int maxConcurrency;
+    private final Consumer<Runnable> rejectedTaskHandler;
+    private final LongAdder rejected = new LongAdder();
+    private final ConcurrentHashMap<String, Executor> keyExecutors = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> weights = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> keyMaxConcurrency = new ConcurrentHashMap<>();
+
+    private final Object lock = new Object();
+    private final Map<String, KeyQueue> queues = new HashMap<>(); // guarded by lock
+    private final ArrayDeque<KeyQueue> round = new ArrayDeque<>(); // keys with queued tasks, guarded by lock
+    private int inFlight; // guarded by lock
+    private boolean dispatching; // a single thread hands the tasks to the delegate at a time, guarded by lock
+
+    /**
+     * @param delegate       - the executor running the tasks
+     * @param maxConcurrency - the maximum number of tasks handed to the delegate at the same time, should not exceed
+     *                       the number of tasks the delegate can run in parallel
+     */
+    public FairQueuingExecutor(Executor delegate, int maxConcurrency) {
+        this(delegate, maxConcurrency, FairQueuingExecutor::cancelRejected);
+    }
+
+    /**
+     * @param rejectedTaskHandler - called with every task the delegate rejected, e.g. to fail the work it stands for
+     */
+    public FairQueuingExecutor(Executor delegate, int maxConcurrency, Consumer<Runnable> rejectedTaskHandler) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Delegate executor must not be null");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be greater than 0");
+        }
+        if (rejectedTaskHandler == null) {
+            throw new IllegalArgumentException("Rejected task handler must not be null");
+        }
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.rejectedTaskHandler = rejectedTaskHandler;
+    }
+
+    /**
+     * @param key - the key, e.g. a tenant id
+     * @return the executor queueing the tasks of the key
+     */
+    public Executor forKey(String key) {
+        return keyExecutors.computeIfAbsent(validateKey(key), k -> task -> execute(k, task));
+    }
+
+    /**
+     * Sets the number of tasks the key gets per round, relative to the other keys. The default weight is 1.
+     */
+    public void setWeight(String key, int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Weight must be greater than 0");
+        }
+        weights.put(validateKey(key), weight);
+    }
+
+    /**
+     * Caps the number of tasks of the key in flight at the same time. By default a key can use the whole max
+     * concurrency.
+     */
+    public void setMaxConcurrency(String key, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Max concurrency must be greater than 0");
+        }
+        keyMaxConcurrency.put(validateKey(key), maxConcurrency);
+    }
+
+    /**
+     * @return the number of tasks of the key waiting to be handed to the delegate
+     */
+    public int getQueuedCount(String key) {
+        synchronized (lock) {
+            KeyQueue queue = queues.get(key);
+            return queue == null ? 0 : queue.tasks.size();
+        }
+    }
+
+    /**
+     * @return the number of tasks of all the keys waiting to be handed to the delegate
+     */
+    public int getQueuedCount() {
+        synchronized (lock) {
+            return queues.values().stream().mapToInt(queue -> queue.tasks.size()).sum();
+        }
+    }
+
+    /**
+     * @return the number of tasks handed to the delegate and not completed
+     */
+    public int getInFlightCount() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * @return the number of tasks rejected by the delegate since the executor was created
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute(DEFAULT_KEY, task);
+    }
+
+    public void execute(String key, Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        if (isShutdown(delegate)) {
+            throw new RejectedExecutionException("Delegate executor is shut down");
+        }
+        // the task may be dispatched by another thread, so the context is captured on submission
+        ContextSnapshot snapshot = ContextSnapshot.isContextAware(task) ? ContextSnapshot.EMPTY
+                : ContextSnapshot.capture();
+        QueuedTask queuedTask = new QueuedTask(task, snapshot);
+        synchronized (lock) {
+            KeyQueue queue = queues.computeIfAbsent(validateKey(key), KeyQueue::new);
+            queue.tasks.addLast(queuedTask);
+            if (!queue.inRound) {
+                queue.inRound = true;
+                round.addLast(queue);
+            }
+        }
+        dispatch();
+    }
+
+    // hands tasks to the delegate until the max concurrency is reached or no task is queued. a thread finding
+    // another one dispatching returns right away, the dispatching thread picks up its task or free slot in its
+    // next iteration, so completions never dispatch recursively
+    private void dispatch() {
+        synchronized (lock) {
+            if (dispatching) {
+                return;
+            }
+            dispatching = true;
+        }
+        boolean idle = false;
+        try {
+            while (true) {
+                KeyQueue queue;
+                QueuedTask task;
+                synchronized (lock) {
+                    queue = inFlight < maxConcurrency ? nextQueue() : null;
+                    if (queue == null) {
+                        // cleared along with the check, so a task queued right after is dispatched by its submitter
+                        dispatching = false;
+                        idle = true;
+                        return;
+                    }
+                    task = queue.tasks.pollFirst();
+                    queue.inFlight++;
+                    inFlight++;
+                    if (queue.tasks.isEmpty()) {
+                        leaveRound(queue);
+                    }
+                }
+                if (!dispatch(queue, task)) {
+                    return;
+                }
+            }
+        } finally {
+            if (!idle) {
+                synchronized (lock) {
+                    dispatching = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return false if a delegate that is still running rejected the task, so the dispatching should stop
+     */
+    private boolean dispatch(KeyQueue queue, QueuedTask task) {
+        // the context was captured on submission, the delegate's task decorator shouldn't capture it again
+        Runnable dispatched = ContextSnapshot.markCaptured(() -> {
+            try (ContextSnapshot.Scope ignored = task.snapshot().apply()) {
+                task.task().run();
+            } finally {
+                onDone(queue);
+            }
+        });
+        try {
+            delegate.execute(dispatched);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Task of key {} was rejected by the delegate executor: {}", queue.key, e.getMessage());
+            release(queue);
+            rejected.increment();
+            try {
+                rejectedTaskHandler.accept(task.task());
+            } catch (RuntimeException handlerException) {
+                log.warn("Rejected task handler failed: {}", handlerException.getMessage());
+            }
+            // a shut down delegate rejects the queued tasks as well, they'd never run otherwise
+            return isShutdown(delegate);
+        }
+    }
+
+    // deficit round-robin with a unit cost per task - the key at the head of the round gets its weight worth of
+    // tasks before its turn passes to the next key, keys at their concurrency cap are skipped
+    private KeyQueue nextQueue() {
+        for (int skipped = 0; skipped < round.size(); ) {
+            KeyQueue queue = round.peekFirst();
+            if (queue.inFlight >= keyMaxConcurrency.getOrDefault(queue.key, Integer.MAX_VALUE)) {
+                queue.deficit = 0;
+                round.addLast(round.pollFirst());
+                skipped++;
+                continue;
+            }
+            if (queue.deficit <= 0) {
+                queue.deficit = weights.getOrDefault(queue.key, 1);
+            }
+            if (--queue.deficit <= 0) {
+                round.addLast(round.pollFirst());
+            }
+            return queue;
+        }
+        return null;
+    }
+
+    private void leaveRound(KeyQueue queue) {
+        round.remove(queue);
+        queue.inRound = false;
+        queue.deficit = 0;
+    }
+
+    private void onDone(KeyQueue queue) {
+        release(queue);
+        dispatch();
+    }
+
+    private void release(KeyQueue queue) {
+        synchronized (lock) {
+            queue.inFlight--;
+            inFlight--;
+            if (queue.inFlight == 0 && queue.tasks.isEmpty()) {
+                queues.remove(queue.key);
+            }
+        }
+    }
+
+    private static boolean isShutdown(Executor executor) {
+        if (executor instanceof ExecutorService executorService) {
+            return executorService.isShutdown();
+        }
+        if (executor instanceof ThreadPoolTaskExecutor threadPoolTaskExecutor) {
+            try {
+                return threadPoolTaskExecutor.getThreadPoolExecutor().isShutdown();
+            } catch (IllegalStateException e) { // not initialized yet
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static void cancelRejected(Runnable task) {
+        if (task instanceof Future<?> future) {
+            future.cancel(false);
+        }
+    }
+
+    private static String validateKey(String key) {
+        if (!StringUtils.hasText(key)) {
+            throw new IllegalArgumentException("Key must not be empty");
+        }
+        return key;
+    }
+
+    private static class KeyQueue {
+        private final String key;
+        private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+        private int inFlight;
+        private int deficit;
+        private boolean inRound;
+
+        KeyQueue(String key) {
+            this.key = key;
+        }
+    }
+
+    private record QueuedTask(Runnable task, ContextSnapshot snapshot) {
+    }
+}
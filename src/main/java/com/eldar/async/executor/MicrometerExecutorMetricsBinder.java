@@ -0,0 +1,31 @@
+package com.eldar.async.executor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Registers the {@link ExecutorMetrics} of the executors in a Micrometer registry. The partitioned calls register
+ * their metrics in the same registry.
+ */
+public class MicrometerExecutorMetricsBinder implements ExecutorMetricsBinder {
+
+    private final MeterRegistry meterRegistry;
+
+    public MicrometerExecutorMetricsBinder(MeterRegistry meterRegistry) {
+        if (meterRegistry == null) {
+            throw new IllegalArgumentException("Meter registry must not be null");
+        }
+        this.meterRegistry = meterRegistry;
+    }
+
+    public MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
+    @Override
+    public Runnable bind(String name, Executor executor, TaskDecorator taskDecorator) {
+        return ExecutorMetrics.bind(name, executor, taskDecorator, meterRegistry)::unbind;
+    }
+}
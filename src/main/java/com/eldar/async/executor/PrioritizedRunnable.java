@@ -0,0 +1,42 @@
+package com.eldar.async.executor;
+
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * A task with a priority, a {@link PriorityTaskQueue} hands out tasks with a higher priority first.
+ * Executors that don't order their queue by priority run it like any other task.
+ *
+ * @param task     - the task to run
+ * @param priority - the priority of the task, higher is more urgent, {@link #DEFAULT_PRIORITY} for regular tasks
+ */
+public record PrioritizedRunnable(Runnable task, int priority) implements Runnable {
+
+    public static final int DEFAULT_PRIORITY = 0;
+
+    public PrioritizedRunnable {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+    }
+
+    @Override
+    public void run() {
+        task.run();
+    }
+
+    /**
+     * @return the priority of the task, {@link #DEFAULT_PRIORITY} if it has none
+     */
+    public static int priorityOf(Runnable task) {
+        return task instanceof PrioritizedRunnable prioritized ? prioritized.priority() : DEFAULT_PRIORITY;
+    }
+
+    /**
+     * @return a decorator that decorates the task inside a prioritized task, so the decorated task keeps its priority
+     */
+    static TaskDecorator preservingPriority(TaskDecorator delegate) {
+        return task -> task instanceof PrioritizedRunnable prioritized
+                ? new PrioritizedRunnable(delegate.decorate(prioritized.task()), prioritized.priority())
+                : delegate.decorate(task);
+    }
+}
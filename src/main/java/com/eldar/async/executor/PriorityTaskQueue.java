@@ -0,0 +1,285 @@
+package com.eldar.async.executor;
+
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded blocking queue of tasks that hands out the task with the highest {@link PrioritizedRunnable priority}
+ * first, tasks of the same priority in submission order.
+ * <p>
+ * Waiting tasks age, so low priority tasks are not starved by a steady stream of urgent ones: every {@code agingStep}
+ * a task waits counts as one priority level. A task of priority 0 that waited 3 aging steps is taken before a task of
+ * priority 2 that was just queued. The ordering key is fixed when the task is queued, so aging costs nothing while
+ * the task waits.
+ * <p>
+ * Like {@link ResizableBlockingQueue}, the capacity can be changed while the queue is in use.
+ */
+public class PriorityTaskQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private final long agingStepNanos;
+    // the keys are relative to the creation of the queue, so they are never close to overflowing
+    private final long origin = System.nanoTime();
+    private final PriorityQueue<Entry> entries = new PriorityQueue<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private volatile int capacity;
+    private long sequence; // guarded by lock
+
+    public PriorityTaskQueue(int capacity, Duration agingStep) {
+        if (agingStep == null || agingStep.isNegative() || agingStep.isZero()) {
+            throw new IllegalArgumentException("Aging step must be greater than 0");
+        }
+        this.agingStepNanos = agingStep.toNanos();
+        setCapacity(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Changes the capacity, lowering it below the current size doesn't drop tasks, new tasks are refused until the
+     * queue drains below the new capacity.
+     */
+    public void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be greater than 0");
+        }
+        lock.lock();
+        try {
+            this.capacity = capacity;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(@NonNull Runnable task) {
+        lock.lock();
+        try {
+            if (entries.size() >= capacity) {
+                return false;
+            }
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(Runnable task, long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (entries.size() >= capacity) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = notFull.awaitNanos(nanos);
+            }
+            enqueue(task);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void put(@NonNull Runnable task) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (entries.size() >= capacity) {
+                notFull.await();
+            }
+            enqueue(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    @NonNull
+    public Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty()) {
+                notEmpty.await();
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (entries.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        lock.lock();
+        try {
+            return entries.isEmpty() ? null : dequeue();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        lock.lock();
+        try {
+            Entry head = entries.peek();
+            return head == null ? null : head.task();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, capacity - size());
+    }
+
+    @Override
+    public boolean remove(Object task) {
+        lock.lock();
+        try {
+            boolean removed = entries.removeIf(entry -> entry.task().equals(task));
+            if (removed) {
+                notFull.signal();
+            }
+            return removed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(@NonNull Collection<? super Runnable> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@NonNull Collection<? super Runnable> collection, int maxElements) {
+        if (collection == this) {
+            throw new IllegalArgumentException("Can't drain the queue to itself");
+        }
+        lock.lock();
+        try {
+            int drained = 0;
+            while (drained < maxElements && !entries.isEmpty()) {
+                collection.add(dequeue());
+                drained++;
+            }
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return an iterator over a snapshot of the queued tasks, in no particular order
+     */
+    @Override
+    @NonNull
+    public Iterator<Runnable> iterator() {
+        List<Runnable> snapshot;
+        lock.lock();
+        try {
+            snapshot = new ArrayList<>(entries.size());
+            entries.forEach(entry -> snapshot.add(entry.task()));
+        } finally {
+            lock.unlock();
+        }
+        Iterator<Runnable> iterator = snapshot.iterator();
+        return new Iterator<>() {
+            private Runnable last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                last = iterator.next();
+                return last;
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                PriorityTaskQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    // guarded by lock
+    private void enqueue(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        // a priority level is worth one aging step of waiting, clamped so the key can't overflow
+        double boost = (double) PrioritizedRunnable.priorityOf(task) * agingStepNanos;
+        long boostNanos = (long) Math.max(Long.MIN_VALUE / 4, Math.min(Long.MAX_VALUE / 4, boost));
+        entries.add(new Entry(task, System.nanoTime() - origin - boostNanos, sequence++));
+        notEmpty.signal();
+    }
+
+    // guarded by lock
+    private Runnable dequeue() {
+        Runnable task = entries.poll().task();
+        notFull.signal();
+        return task;
+    }
+
+    private record Entry(Runnable task, long key, long sequence) implements Comparable<Entry> {
+
+        @Override
+        public int compareTo(Entry other) {
+            int byKey = Long.compare(key, other.key);
+            return byKey != 0 ? byKey : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.eldar.async.executor;
+
+import java.util.Collection;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A linked blocking queue whose capacity can be changed while it's in use.
+ * <p>
+ * Lowering the capacity below the current size doesn't drop elements, new elements are refused until the queue
+ * drains below the new capacity.
+ */
+public class ResizableBlockingQueue<E> extends LinkedBlockingQueue<E> {
+
+    private volatile int capacity;
+    // guards the capacity check of the insertions, so the queue never grows beyond the capacity
+    private final ReentrantLock putLock = new ReentrantLock();
+    private final Condition notFull = putLock.newCondition();
+    private final AtomicInteger waitingPuts = new AtomicInteger();
+
+    public ResizableBlockingQueue(int capacity) {
+        super();
+        setCapacity(capacity);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Queue capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        signalAllNotFull();
+    }
+
+    @Override
+    public boolean offer(E e) {
+        putLock.lock();
+        try {
+            return size() < capacity && super.offer(e);
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean offer(E e, long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        putLock.lockInterruptibly();
+        try {
+            waitingPuts.incrementAndGet();
+            try {
+                while (size() >= capacity) {
+                    if (nanos <= 0) {
+                        return false;
+                    }
+                    nanos = notFull.awaitNanos(nanos);
+                }
+            } finally {
+                waitingPuts.decrementAndGet();
+            }
+            return super.offer(e);
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    @Override
+    public void put(E e) throws InterruptedException {
+        putLock.lockInterruptibly();
+        try {
+            waitingPuts.incrementAndGet();
+            try {
+                while (size() >= capacity) {
+                    notFull.await();
+                }
+            } finally {
+                waitingPuts.decrementAndGet();
+            }
+            super.offer(e);
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, capacity - size());
+    }
+
+    @Override
+    public E take() throws InterruptedException {
+        E e = super.take();
+        signalNotFull();
+        return e;
+    }
+
+    @Override
+    public E poll() {
+        E e = super.poll();
+        if (e != null) {
+            signalNotFull();
+        }
+        return e;
+    }
+
+    @Override
+    public E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        E e = super.poll(timeout, unit);
+        if (e != null) {
+            signalNotFull();
+        }
+        return e;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        boolean removed = super.remove(o);
+        if (removed) {
+            signalNotFull();
+        }
+        return removed;
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super E> c, int maxElements) {
+        int drained = super.drainTo(c, maxElements);
+        if (drained > 0) {
+            signalAllNotFull();
+        }
+        return drained;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        signalAllNotFull();
+    }
+
+    // the lock is only taken when an insertion is waiting for room
+    private void signalNotFull() {
+        if (waitingPuts.get() == 0) {
+            return;
+        }
+        putLock.lock();
+        try {
+            notFull.signal();
+        } finally {
+            putLock.unlock();
+        }
+    }
+
+    private void signalAllNotFull() {
+        putLock.lock();
+        try {
+            notFull.signalAll();
+        } finally {
+            putLock.unlock();
+        }
+    }
+}
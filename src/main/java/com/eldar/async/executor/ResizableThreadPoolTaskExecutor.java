@@ -0,0 +1,81 @@
+package com.eldar.async.executor;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A thread pool task executor whose core size, max size and queue capacity can be changed while it's running.
+ * The queue is FIFO, or ordered by the priority of the tasks when a priority aging step is set.
+ */
+public class ResizableThreadPoolTaskExecutor extends ThreadPoolTaskExecutor {
+
+    private volatile BlockingQueue<Runnable> queue;
+    private Duration priorityAgingStep;
+
+    /**
+     * Orders the queue by the {@link PrioritizedRunnable priority} of the tasks instead of the submission order,
+     * see {@link PriorityTaskQueue}. Takes effect when the executor is initialized.
+     *
+     * @param priorityAgingStep - the time a task waits to gain one priority level, null for a FIFO queue
+     */
+    public void setPriorityAgingStep(Duration priorityAgingStep) {
+        this.priorityAgingStep = priorityAgingStep;
+    }
+
+    @Override
+    @NonNull
+    protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+        queue = priorityAgingStep != null
+                ? new PriorityTaskQueue(queueCapacity, priorityAgingStep)
+                : new ResizableBlockingQueue<>(queueCapacity);
+        return queue;
+    }
+
+    @Override
+    public void setQueueCapacity(int queueCapacity) {
+        super.setQueueCapacity(queueCapacity);
+        BlockingQueue<Runnable> currentQueue = queue;
+        if (currentQueue instanceof ResizableBlockingQueue<Runnable> resizableQueue) {
+            resizableQueue.setCapacity(queueCapacity);
+        } else if (currentQueue instanceof PriorityTaskQueue priorityQueue) {
+            priorityQueue.setCapacity(queueCapacity);
+        }
+    }
+
+    /**
+     * Sets the decorator applied to the submitted tasks, a decorated {@link PrioritizedRunnable} keeps its priority.
+     */
+    @Override
+    public void setTaskDecorator(TaskDecorator taskDecorator) {
+        super.setTaskDecorator(taskDecorator != null ? PrioritizedRunnable.preservingPriority(taskDecorator) : null);
+    }
+
+    /**
+     * Resizes the pool. Threads are added as tasks are submitted, surplus threads terminate once they are idle.
+     *
+     * @param coreSize      - the new core number of threads
+     * @param maxSize       - the new maximum number of threads, not less than the core size
+     * @param queueCapacity - the new queue capacity, queued tasks are kept when the capacity is lowered
+     */
+    public synchronized void resize(int coreSize, int maxSize, int queueCapacity) {
+        if (coreSize < 1 || maxSize < coreSize) {
+            throw new IllegalArgumentException("Core size must be greater than 0 and not greater than the max size");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be greater than 0");
+        }
+        // the core size must not exceed the max size at any point
+        if (coreSize > getMaxPoolSize()) {
+            setMaxPoolSize(maxSize);
+            setCorePoolSize(coreSize);
+        } else {
+            setCorePoolSize(coreSize);
+            setMaxPoolSize(maxSize);
+        }
+        setQueueCapacity(queueCapacity);
+    }
+}
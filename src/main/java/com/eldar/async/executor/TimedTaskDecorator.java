@@ -0,0 +1,40 @@
+package com.eldar.async.executor;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.lang.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the time a task waited in the queue of the executor and the time it took to run.
+ * The queue wait is measured from the time the task is submitted, as executors decorate tasks on submission.
+ */
+public class TimedTaskDecorator implements TaskDecorator {
+
+    private final TaskDecorator delegate;
+    private final Timer queueWaitTimer;
+    private final Timer executionTimer;
+
+    public TimedTaskDecorator(TaskDecorator delegate, Timer queueWaitTimer, Timer executionTimer) {
+        this.delegate = delegate;
+        this.queueWaitTimer = queueWaitTimer;
+        this.executionTimer = executionTimer;
+    }
+
+    @Override
+    @NonNull
+    public Runnable decorate(@NonNull Runnable task) {
+        long submitted = System.nanoTime();
+        Runnable decorated = delegate != null ? delegate.decorate(task) : task;
+        return () -> {
+            long started = System.nanoTime();
+            queueWaitTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+            try {
+                decorated.run();
+            } finally {
+                executionTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+}
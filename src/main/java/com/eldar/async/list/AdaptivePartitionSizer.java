@@ -0,0 +1,135 @@
+package com.eldar.async.list;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Picks a partition size for the "auto" partitioning mode.
+ * <p>
+ * The size is derived from the list size, the parallelism and queue capacity of the target executor, and the
+ * per-item latency observed on earlier calls that used the same operation key. Latency is tracked as an
+ * exponentially weighted moving average, so the chosen size keeps adapting as the workload changes.
+ */
+@Slf4j
+public class AdaptivePartitionSizer {
+
+    // number of partitions to aim for per worker thread, gives room for load balancing between workers
+    static final int PARTITIONS_PER_THREAD = 4;
+    // a partition should run at least this long, otherwise the scheduling overhead dominates
+    static final long MIN_PARTITION_NANOS = 1_000_000L; // 1 millisecond
+    // weight of the latest observation in the moving average
+    static final double SMOOTHING_FACTOR = 0.2;
+
+    private final ConcurrentHashMap<String, ItemLatency> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * Calculates the partition size to use for the given operation.
+     *
+     * @param operationKey - key identifying the operation, calls with the same key share latency statistics
+     * @param itemCount    - the number of items to partition
+     * @param executor     - the executor the partitions will be submitted to
+     * @return the partition size, always between 1 and itemCount
+     */
+    public int partitionSize(String operationKey, int itemCount, Executor executor) {
+        if (itemCount <= 1) {
+            return 1;
+        }
+        ExecutorCapacity capacity = ExecutorCapacity.of(executor);
+        // spread the items over all the workers, with a few partitions per worker
+        int size = ceilDiv(itemCount, capacity.parallelism() * PARTITIONS_PER_THREAD);
+
+        // don't go below the size that keeps every partition busy for at least MIN_PARTITION_NANOS
+        double itemNanos = getItemLatencyNanos(operationKey);
+        if (itemNanos > 0) {
+            size = Math.max(size, (int) Math.min(itemCount, Math.ceil(MIN_PARTITION_NANOS / itemNanos)));
+        }
+
+        // never produce more partitions than the executor can hold at once
+        if (capacity.maxPartitions() > 0) {
+            size = Math.max(size, ceilDiv(itemCount, capacity.maxPartitions()));
+        }
+        size = Math.max(1, Math.min(size, itemCount));
+        log.debug("Auto partition size for operation {} with {} items: {}", operationKey, itemCount, size);
+        return size;
+    }
+
+    /**
+     * Records the execution time of a single partition.
+     *
+     * @param operationKey - key identifying the operation
+     * @param itemCount    - the number of items in the partition
+     * @param elapsedNanos - the time it took to execute the partition
+     */
+    public void record(String operationKey, int itemCount, long elapsedNanos) {
+        if (operationKey == null || itemCount <= 0 || elapsedNanos < 0) {
+            return;
+        }
+        latencies.computeIfAbsent(operationKey, key -> new ItemLatency())
+                .update((double) elapsedNanos / itemCount);
+    }
+
+    /**
+     * @param operationKey - key identifying the operation
+     * @return the average per-item latency in nanoseconds, or 0 if nothing was recorded yet
+     */
+    public double getItemLatencyNanos(String operationKey) {
+        if (operationKey == null) {
+            return 0;
+        }
+        ItemLatency latency = latencies.get(operationKey);
+        return latency == null ? 0 : latency.get();
+    }
+
+    private static int ceilDiv(int x, int y) {
+        return (x + y - 1) / y;
+    }
+
+    private static class ItemLatency {
+        private double average;
+
+        synchronized void update(double itemNanos) {
+            average = average == 0 ? itemNanos : average + SMOOTHING_FACTOR * (itemNanos - average);
+        }
+
+        synchronized double get() {
+            return average;
+        }
+    }
+
+    /**
+     * @param parallelism   - the number of partitions that can run at the same time
+     * @param maxPartitions - the number of partitions the executor accepts at once (running and queued), 0 if unbounded
+     */
+    private record ExecutorCapacity(int parallelism, int maxPartitions) {
+
+        static ExecutorCapacity of(Executor executor) {
+            if (executor instanceof ThreadPoolTaskExecutor taskExecutor) {
+                try {
+                    return of(taskExecutor.getThreadPoolExecutor());
+                } catch (IllegalStateException e) { // not initialized yet
+                    return new ExecutorCapacity(Math.max(1, taskExecutor.getCorePoolSize()), 0);
+                }
+            }
+            if (executor instanceof ThreadPoolExecutor threadPoolExecutor) {
+                return of(threadPoolExecutor);
+            }
+            if (executor instanceof ForkJoinPool forkJoinPool) {
+                return new ExecutorCapacity(forkJoinPool.getParallelism(), 0);
+            }
+            return new ExecutorCapacity(Runtime.getRuntime().availableProcessors(), 0);
+        }
+
+        private static ExecutorCapacity of(ThreadPoolExecutor executor) {
+            int parallelism = Math.max(1, executor.getCorePoolSize());
+            long bounded = (long) executor.getMaximumPoolSize() + executor.getQueue().remainingCapacity()
+                    + executor.getQueue().size();
+            int maxPartitions = bounded >= Integer.MAX_VALUE ? 0 : (int) bounded;
+            return new ExecutorCapacity(parallelism, maxPartitions);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.eldar.async.list;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A slice of an array, handed to the partitions of the primitive array calls instead of a list of boxed elements.
+ */
+record ArrayRange(int offset, int length) {
+
+    /**
+     * @param arrayLength   - the length of the array
+     * @param partitionSize - the maximum length of a slice
+     * @return consecutive slices covering the array, the last slice may be shorter
+     */
+    static List<ArrayRange> partition(int arrayLength, int partitionSize) {
+        return new Partitions(arrayLength, partitionSize);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + offset + ", " + (offset + length) + ")";
+    }
+
+    // slices are created on access, like the partitions of Lists.partition
+    private static class Partitions extends AbstractList<ArrayRange> implements RandomAccess {
+        private final int arrayLength;
+        private final int partitionSize;
+
+        Partitions(int arrayLength, int partitionSize) {
+            this.arrayLength = arrayLength;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        public ArrayRange get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            int offset = index * partitionSize;
+            return new ArrayRange(offset, Math.min(partitionSize, arrayLength - offset));
+        }
+
+        @Override
+        public int size() {
+            return (int) (((long) arrayLength + partitionSize - 1) / partitionSize);
+        }
+    }
+}
@@ -1,25 +1,39 @@
 package com.eldar.async.list;
 
 
+import com.eldar.async.executor.ExecutorMetricsBinder;
 import com.eldar.async.executor.ExecutorServiceManager;
 import com.google.common.collect.Lists;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
+import java.time.Duration;
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 
 @Slf4j
 @Service
 public class AsyncListExecution extends AbstractAsyncExecutor implements AsyncListExecutor {
 
+    // metrics that are used for executors not managed by the executor service manager
+    private static final String CUSTOM_EXECUTOR = "custom";
+
+    private final AdaptivePartitionSizer partitionSizer = new AdaptivePartitionSizer();
+    private final ConcurrentHashMap<String, PartitionMetrics> partitionMetrics = new ConcurrentHashMap<>();
+
     public AsyncListExecution(ExecutorServiceManager executorServiceManager) {
         super(executorServiceManager);
     }
@@ -54,26 +68,94 @@ public class AsyncListExecution extends AbstractAsyncExecutor implements AsyncLi
             return null;
         };
 
-        withPartition(items, genericOperation, partitionSize, executor, false);
+        withPartition(items, genericOperation, partitionSize, executor, null, PartitionOptions.DEFAULT);
     }
 
     private <T> void withPartition(List<T> items, Consumer<List<T>> function, int partitionSize,
                                   Executor executor, boolean isToThrow) {
+        withPartition(items, function, partitionSize, executor, PartitionOptions.of(isToThrow));
+    }
+
+    @Override
+    public <T> void withPartition(List<T> items, Consumer<List<T>> function, int partitionSize, Executor executor,
+                                  PartitionOptions options) {
+        GenericOperation<List<T>, Void> genericOperation = t -> {
+            function.accept(t);
+            return null;
+        };
+
+        withPartition(items, genericOperation, partitionSize, executor, null, options);
+    }
+
+    @Override
+    public <T> void withAutoPartition(String operationKey, List<T> items, Consumer<List<T>> function) {
+        this.withAutoPartition(operationKey, items, function, executorServiceManager.getDefaultExecutor());
+    }
+
+    @Override
+    public <T> void withAutoPartition(String operationKey, List<T> items, Consumer<List<T>> function,
+                                      Executor executor) {
         GenericOperation<List<T>, Void> genericOperation = t -> {
             function.accept(t);
             return null;
         };
 
-        withPartition(items, genericOperation, partitionSize, executor, isToThrow);
+        withAutoPartition(operationKey, items, genericOperation, executor, null);
+    }
+
+    @Override
+    public <T, R> R withAutoPartition(String operationKey, List<T> items, Function<List<T>, R> function,
+                                      Function<List<R>, R> combineFunction) {
+        return this.withAutoPartition(operationKey, items, function, executorServiceManager.getDefaultExecutor(),
+                combineFunction);
+    }
+
+    @Override
+    public <T, R> R withAutoPartition(String operationKey, List<T> items, Function<List<T>, R> function,
+                                      Executor executor, Function<List<R>, R> combineFunction) {
+        GenericOperation<List<T>, R> genericOperation = function::apply;
+
+        List<R> results = withAutoPartition(operationKey, items, genericOperation, executor, combineFunction);
+        return combine(results, combineFunction);
+    }
+
+    private <T, R> List<R> withAutoPartition(String operationKey, List<T> items, GenericOperation<List<T>, R> function,
+                                             Executor executor, Function<List<R>, R> combineFunction) {
+        if (!StringUtils.hasText(operationKey)) {
+            throw new IllegalArgumentException("Operation key must not be empty");
+        }
+        if (CollectionUtils.isEmpty(items)) {
+            log.warn("Items list is empty or null, terminating execution.");
+            return Collections.emptyList();
+        }
+        int partitionSize = partitionSizer.partitionSize(operationKey, items.size(), executor);
+        GenericOperation<List<T>, R> measuredFunction = partition -> {
+            long start = System.nanoTime();
+            R result = function.accept(partition);
+            partitionSizer.record(operationKey, partition.size(), System.nanoTime() - start);
+            return result;
+        };
+        return withPartition(items, measuredFunction, partitionSize, executor, combineFunction,
+                PartitionOptions.DEFAULT);
     }
 
 
     @Override
     public <T, R> R withPartition(List<T> items, Function<List<T>, R> function, int partitionSize,
                                   Executor executor, Function<List<R>, R> combineFunction) {
+        return withPartition(items, function, partitionSize, executor, combineFunction, PartitionOptions.DEFAULT);
+    }
+
+    @Override
+    public <T, R> R withPartition(List<T> items, Function<List<T>, R> function, int partitionSize,
+                                  Executor executor, Function<List<R>, R> combineFunction, PartitionOptions options) {
         GenericOperation<List<T>, R> genericOperation = function::apply;
 
-        List<R> results = withPartition(items, genericOperation, partitionSize, executor, false);
+        List<R> results = withPartition(items, genericOperation, partitionSize, executor, combineFunction, options);
+        return combine(results, combineFunction);
+    }
+
+    private <R> R combine(List<R> results, Function<List<R>, R> combineFunction) {
         if (CollectionUtils.isEmpty(results)) {
             return null;
         }
@@ -82,6 +164,700 @@ public class AsyncListExecution extends AbstractAsyncExecutor implements AsyncLi
         return combineFunction.apply(results);
     }
 
+    @Override
+    public <T> CompletableFuture<Void> withPartitionAsync(List<T> items, Consumer<List<T>> function,
+                                                         int partitionSize) {
+        return this.withPartitionAsync(items, function, partitionSize, executorServiceManager.getDefaultExecutor(),
+                false);
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> withPartitionAsync(List<T> items, Consumer<List<T>> function, int partitionSize,
+                                                         Executor executor, boolean isToThrow) {
+        return withPartitionAsync(items, function, partitionSize, executor, PartitionOptions.of(isToThrow));
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> withPartitionAsync(List<T> items, Consumer<List<T>> function, int partitionSize,
+                                                         Executor executor, PartitionOptions options) {
+        GenericOperation<List<T>, Void> genericOperation = t -> {
+            function.accept(t);
+            return null;
+        };
+
+        return withPartitionAsync(items, genericOperation, partitionSize, executor, null, options)
+                .thenApply(results -> null);
+    }
+
+    @Override
+    public <T, R> CompletableFuture<R> withPartitionAsync(List<T> items, Function<List<T>, R> function,
+                                                          int partitionSize, Function<List<R>, R> combineFunction) {
+        return this.withPartitionAsync(items, function, partitionSize, executorServiceManager.getDefaultExecutor(),
+                combineFunction, false);
+    }
+
+    @Override
+    public <T, R> CompletableFuture<R> withPartitionAsync(List<T> items, Function<List<T>, R> function,
+                                                          int partitionSize, Executor executor,
+                                                          Function<List<R>, R> combineFunction, boolean isToThrow) {
+        return withPartitionAsync(items, function, partitionSize, executor, combineFunction,
+                PartitionOptions.of(isToThrow));
+    }
+
+    @Override
+    public <T, R> CompletableFuture<R> withPartitionAsync(List<T> items, Function<List<T>, R> function,
+                                                          int partitionSize, Executor executor,
+                                                          Function<List<R>, R> combineFunction,
+                                                          PartitionOptions options) {
+        GenericOperation<List<T>, R> genericOperation = function::apply;
+
+        return withPartitionAsync(items, genericOperation, partitionSize, executor, combineFunction, options)
+                .thenApply(results -> combine(results, combineFunction));
+    }
+
+    @Override
+    public <T, R> R withPartitionReduce(List<T> items, Function<List<T>, R> function, int partitionSize,
+                                        R identity, BinaryOperator<R> combiner) {
+        return this.withPartitionReduce(items, function, partitionSize, executorServiceManager.getDefaultExecutor(),
+                identity, combiner);
+    }
+
+    @Override
+    public <T, R> R withPartitionReduce(List<T> items, Function<List<T>, R> function, int partitionSize,
+                                        Executor executor, R identity, BinaryOperator<R> combiner) {
+        return withPartitionReduce(items, function, partitionSize, executor, identity, combiner,
+                PartitionOptions.DEFAULT);
+    }
+
+    @Override
+    public <T, R> R withPartitionReduce(List<T> items, Function<List<T>, R> function, int partitionSize,
+                                        Executor executor, R identity, BinaryOperator<R> combiner,
+                                        PartitionOptions options) {
+        if (combiner == null) {
+            throw new IllegalArgumentException("Combiner must not be null");
+        }
+        validateOptions(options);
+        if (!isValidaParameters(items, partitionSize, executor)) {
+            return identity;
+        }
+        GenericOperation<List<T>, R> genericOperation = function::apply;
+
+        PartitionExecution<R> execution = submit(items, genericOperation, partitionSize, executor,
+                results -> results.stream().reduce(identity, combiner), options);
+        List<CompletableFuture<R>> futures = execution.getFutures();
+        TreeReducer<R> reducer = new TreeReducer<>(futures.size(), identity, combiner);
+        // null values are returned from the function when an error is only logged, they are merged as the identity.
+        // a partition completes exceptionally when its error is to be thrown or the call was cancelled
+        for (int i = 0; i < futures.size(); i++) {
+            int partitionNumber = i;
+            futures.get(i).whenComplete((result, exception) -> {
+                if (exception != null) {
+                    reducer.fail(exception);
+                } else {
+                    reducer.accept(partitionNumber, result == null ? identity : result);
+                }
+            });
+        }
+        return getResult(execution, reducer.getResult(), identity);
+    }
+
+    @Override
+    public void withPartition(int[] items, IntArrayRangeConsumer function, int partitionSize) {
+        this.withPartition(items, function, partitionSize, executorServiceManager.getDefaultExecutor());
+    }
+
+    @Override
+    public void withPartition(int[] items, IntArrayRangeConsumer function, int partitionSize, Executor executor) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items array must not be null");
+        }
+        withArrayPartition(items.length, range -> {
+            function.accept(items, range.offset(), range.length());
+            return null;
+        }, partitionSize, executor);
+    }
+
+    @Override
+    public void withPartition(long[] items, LongArrayRangeConsumer function, int partitionSize) {
+        this.withPartition(items, function, partitionSize, executorServiceManager.getDefaultExecutor());
+    }
+
+    @Override
+    public void withPartition(long[] items, LongArrayRangeConsumer function, int partitionSize, Executor executor) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items array must not be null");
+        }
+        withArrayPartition(items.length, range -> {
+            function.accept(items, range.offset(), range.length());
+            return null;
+        }, partitionSize, executor);
+    }
+
+    @Override
+    public void withPartition(double[] items, DoubleArrayRangeConsumer function, int partitionSize) {
+        this.withPartition(items, function, partitionSize, executorServiceManager.getDefaultExecutor());
+    }
+
+    @Override
+    public void withPartition(double[] items, DoubleArrayRangeConsumer function, int partitionSize,
+                              Executor executor) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items array must not be null");
+        }
+        withArrayPartition(items.length, range -> {
+            function.accept(items, range.offset(), range.length());
+            return null;
+        }, partitionSize, executor);
+    }
+
+    @Override
+    public int withPartitionReduce(int[] items, IntArrayRangeFunction function, int partitionSize, int identity,
+                                   IntBinaryOperator combiner) {
+        return this.withPartitionReduce(items, function, partitionSize, executorServiceManager.getDefaultExecutor(),
+                identity, combiner);
+    }
+
+    @Override
+    public int withPartitionReduce(int[] items, IntArrayRangeFunction function, int partitionSize, Executor executor,
+                                   int identity, IntBinaryOperator combiner) {
+        // a failed slice would silently skew the result, so it's thrown by default
+        return withPartitionReduce(items, function, partitionSize, executor, identity, combiner,
+                PartitionOptions.of(true));
+    }
+
+    @Override
+    public int withPartitionReduce(int[] items, IntArrayRangeFunction function, int partitionSize, Executor executor,
+                                   int identity, IntBinaryOperator combiner, PartitionOptions options) {
+        if (items == null || combiner == null) {
+            throw new IllegalArgumentException("Items array and combiner must not be null");
+        }
+        // null values are returned from the function when an error is only logged, the failed slices are left out
+        return withArrayPartition(items.length,
+                range -> function.applyAsInt(items, range.offset(), range.length()), partitionSize, executor,
+                options)
+                .stream().filter(Objects::nonNull).mapToInt(Integer::intValue).reduce(identity, combiner);
+    }
+
+    @Override
+    public long withPartitionReduce(long[] items, LongArrayRangeFunction function, int partitionSize, long identity,
+                                    LongBinaryOperator combiner) {
+        return this.withPartitionReduce(items, function, partitionSize, executorServiceManager.getDefaultExecutor(),
+                identity, combiner);
+    }
+
+    @Override
+    public long withPartitionReduce(long[] items, LongArrayRangeFunction function, int partitionSize,
+                                    Executor executor, long identity, LongBinaryOperator combiner) {
+        // a failed slice would silently skew the result, so it's thrown by default
+        return withPartitionReduce(items, function, partitionSize, executor, identity, combiner,
+                PartitionOptions.of(true));
+    }
+
+    @Override
+    public long withPartitionReduce(long[] items, LongArrayRangeFunction function, int partitionSize,
+                                    Executor executor, long identity, LongBinaryOperator combiner,
+                                    PartitionOptions options) {
+        if (items == null || combiner == null) {
+            throw new IllegalArgumentException("Items array and combiner must not be null");
+        }
+        // null values are returned from the function when an error is only logged, the failed slices are left out
+        return withArrayPartition(items.length,
+                range -> function.applyAsLong(items, range.offset(), range.length()), partitionSize, executor,
+                options)
+                .stream().filter(Objects::nonNull).mapToLong(Long::longValue).reduce(identity, combiner);
+    }
+
+    @Override
+    public double withPartitionReduce(double[] items, DoubleArrayRangeFunction function, int partitionSize,
+                                      double identity, DoubleBinaryOperator combiner) {
+        return this.withPartitionReduce(items, function, partitionSize, executorServiceManager.getDefaultExecutor(),
+                identity, combiner);
+    }
+
+    @Override
+    public double withPartitionReduce(double[] items, DoubleArrayRangeFunction function, int partitionSize,
+                                      Executor executor, double identity, DoubleBinaryOperator combiner) {
+        // a failed slice would silently skew the result, so it's thrown by default
+        return withPartitionReduce(items, function, partitionSize, executor, identity, combiner,
+                PartitionOptions.of(true));
+    }
+
+    @Override
+    public double withPartitionReduce(double[] items, DoubleArrayRangeFunction function, int partitionSize,
+                                      Executor executor, double identity, DoubleBinaryOperator combiner,
+                                      PartitionOptions options) {
+        if (items == null || combiner == null) {
+            throw new IllegalArgumentException("Items array and combiner must not be null");
+        }
+        // null values are returned from the function when an error is only logged, the failed slices are left out
+        return withArrayPartition(items.length,
+                range -> function.applyAsDouble(items, range.offset(), range.length()), partitionSize, executor,
+                options)
+                .stream().filter(Objects::nonNull).mapToDouble(Double::doubleValue).reduce(identity, combiner);
+    }
+
+    @Override
+    public <T> void withStreamingPartition(Iterator<T> items, Consumer<List<T>> function, int partitionSize,
+                                           int maxInFlight, Executor executor) {
+        GenericOperation<List<T>, Void> genericOperation = t -> {
+            function.accept(t);
+            return null;
+        };
+
+        withStreamingPartition(items, genericOperation, partitionSize, maxInFlight, executor, PartitionOptions.DEFAULT);
+    }
+
+    @Override
+    public <T> void withStreamingPartition(Iterator<T> items, Consumer<List<T>> function, int partitionSize,
+                                           int maxInFlight, Executor executor, PartitionOptions options) {
+        GenericOperation<List<T>, Void> genericOperation = t -> {
+            function.accept(t);
+            return null;
+        };
+
+        withStreamingPartition(items, genericOperation, partitionSize, maxInFlight, executor, options);
+    }
+
+    @Override
+    public <T> void withStreamingPartition(Stream<T> items, Consumer<List<T>> function, int partitionSize,
+                                           int maxInFlight, Executor executor) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items stream must not be null");
+        }
+        try (items) {
+            withStreamingPartition(items.iterator(), function, partitionSize, maxInFlight, executor);
+        }
+    }
+
+    @Override
+    public <T, R> R withStreamingPartition(Iterator<T> items, Function<List<T>, R> function, int partitionSize,
+                                           int maxInFlight, Executor executor, Function<List<R>, R> combineFunction) {
+        return this.withStreamingPartition(items, function, partitionSize, maxInFlight, executor, combineFunction,
+                PartitionOptions.DEFAULT);
+    }
+
+    @Override
+    public <T, R> R withStreamingPartition(Iterator<T> items, Function<List<T>, R> function, int partitionSize,
+                                           int maxInFlight, Executor executor, Function<List<R>, R> combineFunction,
+                                           PartitionOptions options) {
+        GenericOperation<List<T>, R> genericOperation = function::apply;
+
+        List<R> results = withStreamingPartition(items, genericOperation, partitionSize, maxInFlight, executor,
+                options);
+        return combine(results, combineFunction);
+    }
+
+    @Override
+    public <T, R> R withStreamingPartition(Stream<T> items, Function<List<T>, R> function, int partitionSize,
+                                           int maxInFlight, Executor executor, Function<List<R>, R> combineFunction) {
+        if (items == null) {
+            throw new IllegalArgumentException("Items stream must not be null");
+        }
+        try (items) {
+            return withStreamingPartition(items.iterator(), function, partitionSize, maxInFlight, executor,
+                    combineFunction);
+        }
+    }
+
+    // pulls the items lazily into partitions, at most maxInFlight partitions are submitted and not yet completed.
+    // the calling thread is the producer, it blocks while the window is full. the timeout covers the whole call, on
+    // timeout the rest of the items are not pulled and the outstanding partitions are cancelled
+    private <T, R> List<R> withStreamingPartition(Iterator<T> items, GenericOperation<List<T>, R> function,
+                                                  int partitionSize, int maxInFlight, Executor executor,
+                                                  PartitionOptions options) {
+        validateOptions(options);
+        if (items == null) {
+            throw new IllegalArgumentException("Items iterator must not be null");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Max in flight partitions must be greater than 0");
+        }
+        if (partitionSize <= 0) {
+            throw new IllegalArgumentException("Partition size must be greater than 0");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        PartitionMetrics metrics = getPartitionMetrics(executor);
+        // the partition count isn't known up front, the hedges are budgeted by the window instead
+        PartitionExecution<R> execution = new PartitionExecution<>(withMaxConcurrency(options), metrics, maxInFlight);
+        Semaphore window = new Semaphore(maxInFlight);
+        int partitionCount = 0;
+        try {
+            while (items.hasNext()) {
+                List<T> currentPartition = new ArrayList<>(partitionSize);
+                while (currentPartition.size() < partitionSize && items.hasNext()) {
+                    currentPartition.add(items.next());
+                }
+                acquire(window, 1, execution);
+                // the task keeps the partition only until it completes, so the items of the completed partitions
+                // can be collected while the call goes on
+                AtomicReference<List<T>> partition = new AtomicReference<>(currentPartition);
+                PartitionTask<R> task = newTask(execution, partitionCount++, partition,
+                        holder -> function.accept(holder.get()));
+                task.getFuture().whenComplete((result, exception) -> {
+                    partition.set(null);
+                    window.release();
+                });
+                if (!execution.submit(task, executor)) {
+                    log.warn("Call was cancelled, the remaining items were not pulled");
+                    break;
+                }
+            }
+            // all the permits are back once the last partitions are done
+            acquire(window, maxInFlight, execution);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted state...
+            log.warn("Thread was interrupted: " + e.getMessage());
+            execution.cancel();
+            if (options.isToThrow()) {
+                throw new RuntimeException(e);
+            }
+            return Collections.emptyList();
+        } catch (TimeoutException e) {
+            log.warn("Timeout: Not all tasks completed within the specified timeout of " + options.getTimeout());
+            metrics.recordTimeout();
+            execution.cancel();
+            if (options.isToThrow()) {
+                throw new RuntimeException(e);
+            }
+            return Collections.emptyList();
+        } finally {
+            metrics.recordPartitionCount(partitionCount);
+        }
+        return getResult(execution, execution.getResults(), Collections.emptyList());
+    }
+
+    // a nested call runs the partitions no worker picked up yet before blocking, the window would never open otherwise
+    private void acquire(Semaphore window, int permits, PartitionExecution<?> execution)
+            throws InterruptedException, TimeoutException {
+        if (window.tryAcquire(permits)) {
+            return;
+        }
+        execution.runPendingIfNested();
+        if (!window.tryAcquire(permits, execution.getRemainingNanos(), TimeUnit.NANOSECONDS)) {
+            throw new TimeoutException("No partition completed within the timeout");
+        }
+    }
+
+    @Override
+    public <T, R> Flow.Publisher<R> withPartitionPublisher(List<T> items, Function<List<T>, R> function,
+                                                           int partitionSize) {
+        return this.withPartitionPublisher(items, function, partitionSize, executorServiceManager.getDefaultExecutor());
+    }
+
+    @Override
+    public <T, R> Flow.Publisher<R> withPartitionPublisher(List<T> items, Function<List<T>, R> function,
+                                                           int partitionSize, Executor executor) {
+        if (function == null) {
+            throw new IllegalArgumentException("Function must not be null");
+        }
+        if (partitionSize <= 0) {
+            throw new IllegalArgumentException("Partition size must be greater than 0");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        List<List<T>> partitions = CollectionUtils.isEmpty(items)
+                ? Collections.emptyList() : Lists.partition(items, partitionSize);
+        GenericOperation<List<T>, R> genericOperation = function::apply;
+        PartitionMetrics metrics = getPartitionMetrics(executor);
+        metrics.recordPartitionCount(partitions.size());
+        // the subscriber is notified of the first failure, the remaining partitions are cancelled
+        PartitionExecution<R> execution = new PartitionExecution<>(
+                PartitionOptions.builder().toThrow(true).failFast(true).build(), metrics);
+        return new PartitionPublisher<>(partitions.size(), partitionNumber -> new PartitionTask<>(partitionNumber,
+                () -> exceptionHandlingWrapper(partitions.get(partitionNumber), genericOperation, partitionNumber,
+                        true, metrics)),
+                execution, executor);
+    }
+
+    @Override
+    public <T, R> PartitionedResult<R> withPartitionedResult(List<T> items, Function<List<T>, R> function,
+                                                             int partitionSize) {
+        return this.withPartitionedResult(items, function, partitionSize, executorServiceManager.getDefaultExecutor(),
+                PartitionOptions.DEFAULT);
+    }
+
+    @Override
+    public <T, R> PartitionedResult<R> withPartitionedResult(List<T> items, Function<List<T>, R> function,
+                                                             int partitionSize, Executor executor,
+                                                             PartitionOptions options) {
+        validateOptions(options);
+        if (function == null) {
+            throw new IllegalArgumentException("Function must not be null");
+        }
+        if (!isValidaParameters(items, partitionSize, executor)) {
+            return PartitionedResult.empty();
+        }
+        List<List<T>> partitions = Lists.partition(items, partitionSize);
+        // the failures must reach the tasks to be reported, they are never thrown to the caller
+        PartitionOptions reportingOptions = options.toBuilder().toThrow(true).build();
+        PartitionExecution<R> execution = newExecution(partitions.size(), executor, reportingOptions);
+        try {
+            submitPartitions(execution, partitions, function::apply, executor);
+        } catch (RejectedExecutionException e) {
+            // the rejected partition and the cancelled ones are reported in the outcomes
+            return toPartitionedResult(execution, partitions.size(), partitionSize, items.size(), false);
+        }
+        boolean timedOut = false;
+        try {
+            execution.runPendingIfNested();
+            CompletableFuture.allOf(execution.getFutures().toArray(new CompletableFuture[0]))
+                    .get(execution.getRemainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Restore interrupted state...
+            log.warn("Thread was interrupted: " + e.getMessage());
+            cancelIfFailFast(execution);
+        } catch (TimeoutException e) {
+            log.warn("Timeout: Not all tasks completed within the specified timeout of " + options.getTimeout());
+            execution.getMetrics().recordTimeout();
+            cancelIfFailFast(execution);
+            timedOut = true;
+        } catch (ExecutionException | CancellationException e) {
+            // reported in the outcome of the partition
+        }
+        return toPartitionedResult(execution, partitions.size(), partitionSize, items.size(), timedOut);
+    }
+
+    @Override
+    public <T, K> void withPartitionByKey(List<T> items, Function<T, K> keyExtractor, Consumer<List<T>> function,
+                                          int partitionCount) {
+        this.withPartitionByKey(items, keyExtractor, function, partitionCount,
+                executorServiceManager.getDefaultExecutor(), PartitionOptions.DEFAULT);
+    }
+
+    @Override
+    public <T, K> void withPartitionByKey(List<T> items, Function<T, K> keyExtractor, Consumer<List<T>> function,
+                                          int partitionCount, Executor executor, PartitionOptions options) {
+        GenericOperation<List<T>, Void> genericOperation = t -> {
+            function.accept(t);
+            return null;
+        };
+
+        withPartitionByKey(items, keyExtractor, genericOperation, partitionCount, executor, options);
+    }
+
+    @Override
+    public <T, K, R> R withPartitionByKey(List<T> items, Function<T, K> keyExtractor, Function<List<T>, R> function,
+                                          int partitionCount, Executor executor,
+                                          Function<List<R>, R> combineFunction, PartitionOptions options) {
+        GenericOperation<List<T>, R> genericOperation = function::apply;
+
+        List<R> results = withPartitionByKey(items, keyExtractor, genericOperation, partitionCount, executor, options);
+        return combine(results, combineFunction);
+    }
+
+    // the key partitions are never split, not even on a fork join pool, so the items of a key stay on one thread
+    private <T, K, R> List<R> withPartitionByKey(List<T> items, Function<T, K> keyExtractor,
+                                                 GenericOperation<List<T>, R> function, int partitionCount,
+                                                 Executor executor, PartitionOptions options) {
+        validateOptions(options);
+        if (keyExtractor == null) {
+            throw new IllegalArgumentException("Key extractor must not be null");
+        }
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be greater than 0");
+        }
+        if (!isValidaParameters(items, partitionCount, executor)) {
+            return Collections.emptyList();
+        }
+        List<List<T>> partitions = KeyPartitioner.partition(items, keyExtractor, partitionCount);
+        PartitionExecution<R> execution = submitPartitions(partitions, function, executor, options);
+        return getResult(execution, execution.getResults(), Collections.emptyList());
+    }
+
+    @Override
+    public <T> void withWeightedPartition(List<T> items, ToLongFunction<T> weigher, Consumer<List<T>> function,
+                                          int partitionCount, int maxPartitionSize) {
+        this.withWeightedPartition(items, weigher, function, partitionCount, maxPartitionSize,
+                executorServiceManager.getDefaultExecutor(), PartitionOptions.DEFAULT);
+    }
+
+    @Override
+    public <T> void withWeightedPartition(List<T> items, ToLongFunction<T> weigher, Consumer<List<T>> function,
+                                          int partitionCount, int maxPartitionSize, Executor executor,
+                                          PartitionOptions options) {
+        GenericOperation<List<T>, Void> genericOperation = t -> {
+            function.accept(t);
+            return null;
+        };
+
+        withWeightedPartition(items, weigher, genericOperation, partitionCount, maxPartitionSize, executor, options);
+    }
+
+    @Override
+    public <T, R> R withWeightedPartition(List<T> items, ToLongFunction<T> weigher, Function<List<T>, R> function,
+                                          int partitionCount, int maxPartitionSize, Executor executor,
+                                          Function<List<R>, R> combineFunction, PartitionOptions options) {
+        GenericOperation<List<T>, R> genericOperation = function::apply;
+
+        List<R> results = withWeightedPartition(items, weigher, genericOperation, partitionCount, maxPartitionSize,
+                executor, options);
+        return combine(results, combineFunction);
+    }
+
+    // the weighted partitions are already balanced, they are not split further on a fork join pool
+    private <T, R> List<R> withWeightedPartition(List<T> items, ToLongFunction<T> weigher,
+                                                 GenericOperation<List<T>, R> function, int partitionCount,
+                                                 int maxPartitionSize, Executor executor, PartitionOptions options) {
+        validateOptions(options);
+        if (weigher == null) {
+            throw new IllegalArgumentException("Weigher must not be null");
+        }
+        if (partitionCount <= 0) {
+            throw new IllegalArgumentException("Partition count must be greater than 0");
+        }
+        if (!isValidaParameters(items, maxPartitionSize, executor)) {
+            return Collections.emptyList();
+        }
+        List<List<T>> partitions = WeightedPartitioner.partition(items, weigher, partitionCount, maxPartitionSize);
+        PartitionExecution<R> execution = submitPartitions(partitions, function, executor, options);
+        return getResult(execution, execution.getResults(), Collections.emptyList());
+    }
+
+    @Override
+    public <T, V> Map<T, V> withCachedPartition(List<T> items, Function<List<T>, Map<T, V>> function,
+                                                int partitionSize, PartitionCache<T, V> cache) {
+        return this.withCachedPartition(items, function, partitionSize, cache,
+                executorServiceManager.getDefaultExecutor(), PartitionOptions.DEFAULT);
+    }
+
+    @Override
+    public <T, V> Map<T, V> withCachedPartition(List<T> items, Function<List<T>, Map<T, V>> function,
+                                                int partitionSize, PartitionCache<T, V> cache, Executor executor,
+                                                PartitionOptions options) {
+        validateOptions(options);
+        if (function == null || cache == null) {
+            throw new IllegalArgumentException("Function and cache must not be null");
+        }
+        if (!isValidaParameters(items, partitionSize, executor)) {
+            return Collections.emptyMap();
+        }
+        // the future of every distinct item, cached, computed by another call or claimed by this call
+        Map<T, CompletableFuture<Optional<V>>> itemFutures = new LinkedHashMap<>();
+        Map<T, CompletableFuture<Optional<V>>> claimed = new LinkedHashMap<>();
+        for (T item : items) {
+            if (!itemFutures.containsKey(item)) {
+                CompletableFuture<Optional<V>> pending = new CompletableFuture<>();
+                CompletableFuture<Optional<V>> existing = cache.claim(item, pending);
+                itemFutures.put(item, existing != null ? existing : pending);
+                if (existing == null) {
+                    claimed.put(item, pending);
+                }
+            }
+        }
+        List<List<T>> partitions = Lists.partition(new ArrayList<>(claimed.keySet()), partitionSize);
+        PartitionExecution<Map<T, V>> execution = partitions.isEmpty()
+                ? new PartitionExecution<>(options, PartitionMetrics.NOOP)
+                : newExecution(partitions.size(), executor, options);
+        try {
+            submitPartitions(execution, partitions, function::apply, executor);
+        } finally {
+            completeClaimed(execution.getFutures(), partitions, claimed, cache);
+        }
+        CompletableFuture<Map<T, V>> values = CompletableFuture
+                .allOf(itemFutures.values().toArray(new CompletableFuture[0]))
+                .thenApply(v -> completedValues(itemFutures));
+        Map<T, V> result = getResult(execution, values, null);
+        // the items that completed, if a partition failed or the timeout expired
+        return result != null ? result : completedValues(itemFutures);
+    }
+
+    // completes the claimed items with the values of their partition, the items of partitions that failed or were
+    // not submitted are failed, so the calls waiting for them don't wait for the timeout
+    private <T, V> void completeClaimed(List<CompletableFuture<Map<T, V>>> futures, List<List<T>> partitions,
+                                        Map<T, CompletableFuture<Optional<V>>> claimed, PartitionCache<T, V> cache) {
+        for (int partitionNumber = 0; partitionNumber < partitions.size(); partitionNumber++) {
+            List<T> partition = partitions.get(partitionNumber);
+            CompletableFuture<Map<T, V>> future = partitionNumber < futures.size()
+                    ? futures.get(partitionNumber)
+                    : CompletableFuture.failedFuture(new CancellationException("Partition was not submitted"));
+            future.whenComplete((values, exception) -> {
+                for (T item : partition) {
+                    if (exception != null) {
+                        cache.fail(item, claimed.get(item), exception);
+                    } else if (values == null) { // the function failed, the exception was logged
+                        cache.fail(item, claimed.get(item), new IllegalStateException("Partition failed"));
+                    } else {
+                        cache.complete(item, claimed.get(item), Optional.ofNullable(values.get(item)));
+                    }
+                }
+            });
+        }
+    }
+
+    private static <T, V> Map<T, V> completedValues(Map<T, CompletableFuture<Optional<V>>> itemFutures) {
+        Map<T, V> values = new LinkedHashMap<>();
+        itemFutures.forEach((item, future) -> {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                future.join().ifPresent(value -> values.put(item, value));
+            }
+        });
+        return values;
+    }
+
+    private <R> PartitionedResult<R> toPartitionedResult(PartitionExecution<R> execution, int partitionCount,
+                                                         int partitionSize, int itemCount, boolean timedOut) {
+        List<PartitionTask<R>> tasks = execution.getTasks();
+        List<PartitionOutcome<R>> outcomes = new ArrayList<>(partitionCount);
+        for (int partitionNumber = 0; partitionNumber < partitionCount; partitionNumber++) {
+            int fromIndex = partitionNumber * partitionSize;
+            int toIndex = Math.min(fromIndex + partitionSize, itemCount);
+            if (partitionNumber >= tasks.size()) { // not submitted, the call was cancelled
+                outcomes.add(new PartitionOutcome<>(partitionNumber, fromIndex, toIndex,
+                        PartitionOutcome.Status.CANCELLED, null, null, Duration.ZERO, Duration.ZERO, 0));
+                continue;
+            }
+            PartitionTask<R> task = tasks.get(partitionNumber);
+            CompletableFuture<R> future = task.getFuture();
+            PartitionOutcome.Status status;
+            R result = null;
+            Throwable exception = null;
+            if (!future.isDone()) {
+                status = PartitionOutcome.Status.TIMED_OUT;
+            } else if (future.isCancelled()) {
+                status = PartitionOutcome.Status.CANCELLED;
+            } else {
+                try {
+                    result = future.join();
+                    status = PartitionOutcome.Status.SUCCEEDED;
+                } catch (CompletionException e) {
+                    exception = e.getCause() != null ? e.getCause() : e;
+                    status = PartitionOutcome.Status.FAILED;
+                }
+            }
+            outcomes.add(new PartitionOutcome<>(partitionNumber, fromIndex, toIndex, status, result, exception,
+                    Duration.ofNanos(task.getQueueWaitNanos()), Duration.ofNanos(task.getExecutionNanos()),
+                    task.getAttempts()));
+        }
+        return new PartitionedResult<>(outcomes, timedOut);
+    }
+
+    // the partitions get slices of the array, so only one result per partition is boxed
+    private <R> List<R> withArrayPartition(int length, GenericOperation<ArrayRange, R> function, int partitionSize,
+                                           Executor executor) {
+        return withArrayPartition(length, function, partitionSize, executor, PartitionOptions.DEFAULT);
+    }
+
+    private <R> List<R> withArrayPartition(int length, GenericOperation<ArrayRange, R> function, int partitionSize,
+                                           Executor executor, PartitionOptions options) {
+        validateOptions(options);
+        if (partitionSize <= 0) {
+            throw new IllegalArgumentException("Partition size must be greater than 0");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor must not be null");
+        }
+        if (length == 0) {
+            log.warn("Items array is empty, terminating execution.");
+            return Collections.emptyList();
+        }
+        PartitionExecution<R> execution = submitPartitions(ArrayRange.partition(length, partitionSize), function,
+                executor, options);
+        return getResult(execution, execution.getResults(), Collections.emptyList());
+    }
+
     private <T> boolean isValidaParameters(List<T> items, int partitionSize, Executor executor) {
         if (CollectionUtils.isEmpty(items)) {
             log.warn("Items list is empty or null, terminating execution.");
@@ -96,33 +872,55 @@ public class AsyncListExecution extends AbstractAsyncExecutor implements AsyncLi
         return true;
     }
 
+    private void validateOptions(PartitionOptions options) {
+        if (options == null) {
+            throw new IllegalArgumentException("Partition options must not be null");
+        }
+        if (options.getTimeout() == null || options.getTimeout().isNegative() || options.getTimeout().isZero()) {
+            throw new IllegalArgumentException("Timeout must be greater than 0");
+        }
+        if (options.getRetryPolicy() == null) {
+            throw new IllegalArgumentException("Retry policy must not be null");
+        }
+        options.getRetryPolicy().validate();
+        if (options.getHedgingPolicy() == null) {
+            throw new IllegalArgumentException("Hedging policy must not be null");
+        }
+        options.getHedgingPolicy().validate();
+        if (options.getMaxConcurrency() < 0) {
+            throw new IllegalArgumentException("Max concurrency must not be negative");
+        }
+    }
+
     private <T, R> List<R> withPartition(List<T> items, GenericOperation<List<T>, R> function, int partitionSize,
-                                         Executor executor, boolean isToThrowException) {
+                                         Executor executor, Function<List<R>, R> combineFunction,
+                                         PartitionOptions options) {
+        validateOptions(options);
         if (!isValidaParameters(items, partitionSize, executor)) {
             return Collections.emptyList();
         }
-        List<List<T>> partitions = Lists.partition(items, partitionSize);
-        List<CompletableFuture<R>> futures = new ArrayList<>();
-        for (int i = 0; i < partitions.size(); i++) {
-            int partitionNumber = i;
-            List<T> currentPartition = partitions.get(partitionNumber);
-            futures.add(CompletableFuture.supplyAsync(() -> exceptionHandlingWrapper(currentPartition, function, partitionNumber,isToThrowException), executor));
-        }
+        PartitionExecution<R> execution = submit(items, function, partitionSize, executor, combineFunction, options);
+        return getResult(execution, execution.getResults(), Collections.emptyList());
+    }
 
-        CompletableFuture<List<R>> allFutures = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApplyAsync(v -> futures.stream()
-                        .map(CompletableFuture::join)
-                        .toList(), executor);
+    // waits for the result of the partitions, in case of an error returns the default value or throws if requested
+    private <X> X getResult(PartitionExecution<?> execution, CompletableFuture<X> future, X defaultValue) {
+        PartitionOptions options = execution.getOptions();
+        boolean isToThrowException = options.isToThrow();
         try {
-            return allFutures.get(TASK_TIMEOUT, TimeUnit.SECONDS);
+            execution.runPendingIfNested();
+            return future.get(execution.getRemainingNanos(), TimeUnit.NANOSECONDS);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Restore interrupted state...
             log.warn("Thread was interrupted: " + e.getMessage());
+            cancelIfFailFast(execution);
             if (isToThrowException) {
                 throw new RuntimeException(e);
             }
         } catch (TimeoutException e) {
-            log.warn("Timeout: Not all tasks completed within the specified timeout of " + TASK_TIMEOUT + " seconds");
+            log.warn("Timeout: Not all tasks completed within the specified timeout of " + options.getTimeout());
+            execution.getMetrics().recordTimeout();
+            cancelIfFailFast(execution);
             if (isToThrowException) {
                 throw new RuntimeException(e);
             }
@@ -137,23 +935,144 @@ public class AsyncListExecution extends AbstractAsyncExecutor implements AsyncLi
                 throw e;
             }
         }
-        return Collections.emptyList();
+        return defaultValue;
+    }
+
+    private void cancelIfFailFast(PartitionExecution<?> execution) {
+        if (execution.getOptions().isFailFast()) {
+            execution.cancel();
+        }
+    }
+
+    private <T, R> CompletableFuture<List<R>> withPartitionAsync(List<T> items, GenericOperation<List<T>, R> function,
+                                                                 int partitionSize, Executor executor,
+                                                                 Function<List<R>, R> combineFunction,
+                                                                 PartitionOptions options) {
+        validateOptions(options);
+        if (!isValidaParameters(items, partitionSize, executor)) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        PartitionExecution<R> execution = submit(items, function, partitionSize, executor, combineFunction, options);
+        return execution.getResults()
+                .orTimeout(execution.getRemainingNanos(), TimeUnit.NANOSECONDS)
+                .handle((results, exception) -> {
+                    if (exception == null) {
+                        return results;
+                    }
+                    Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+                            ? exception.getCause() : exception;
+                    if (cause instanceof TimeoutException) {
+                        log.warn("Timeout: Not all tasks completed within the specified timeout of " + options.getTimeout());
+                        execution.getMetrics().recordTimeout();
+                        cancelIfFailFast(execution);
+                    } else {
+                        log.warn("Execution exception: " + cause.getMessage());
+                    }
+                    if (options.isToThrow()) {
+                        throw new CompletionException(cause);
+                    }
+                    return Collections.emptyList();
+                });
+    }
+
+    private <T, R> PartitionExecution<R> submit(List<T> items, GenericOperation<List<T>, R> function,
+                                                int partitionSize, Executor executor,
+                                                Function<List<R>, R> combineFunction, PartitionOptions options) {
+        GenericOperation<List<T>, R> partitionFunction = executor instanceof ForkJoinPool
+                ? ForkJoinSplitter.splitting(function, combineFunction, partitionSize)
+                : function;
+        return submitPartitions(Lists.partition(items, partitionSize), partitionFunction, executor, options);
+    }
+
+    // submits a task for every partition, a partition is a sublist or a slice of an array
+    private <P, R> PartitionExecution<R> submitPartitions(List<P> partitions, GenericOperation<P, R> partitionFunction,
+                                                          Executor executor, PartitionOptions options) {
+        PartitionExecution<R> execution = newExecution(partitions.size(), executor, options);
+        submitPartitions(execution, partitions, partitionFunction, executor);
+        return execution;
+    }
+
+    private <R> PartitionExecution<R> newExecution(int partitionCount, Executor executor, PartitionOptions options) {
+        PartitionMetrics metrics = getPartitionMetrics(executor);
+        metrics.recordPartitionCount(partitionCount);
+        return new PartitionExecution<>(withMaxConcurrency(options), metrics, partitionCount);
+    }
+
+    private PartitionOptions withMaxConcurrency(PartitionOptions options) {
+        if (options.getMaxConcurrency() != PartitionOptions.USE_CONFIGURED_MAX_CONCURRENCY) {
+            return options;
+        }
+        int maxConcurrency = executorServiceManager.getAsyncProperties().getPartition().getMaxConcurrency();
+        return maxConcurrency > 0 ? options.toBuilder().maxConcurrency(maxConcurrency).build() : options;
+    }
+
+    private <P, R> void submitPartitions(PartitionExecution<R> execution, List<P> partitions,
+                                         GenericOperation<P, R> partitionFunction, Executor executor) {
+        for (int partitionNumber = 0; partitionNumber < partitions.size(); partitionNumber++) {
+            PartitionTask<R> task = newTask(execution, partitionNumber, partitions.get(partitionNumber),
+                    partitionFunction);
+            if (!execution.submit(task, executor)) {
+                log.warn("Call was cancelled, {} partitions were not submitted", partitions.size() - partitionNumber - 1);
+                break;
+            }
+        }
+    }
+
+    private <P, R> PartitionTask<R> newTask(PartitionExecution<R> execution, int partitionNumber, P partition,
+                                            GenericOperation<P, R> partitionFunction) {
+        PartitionOptions options = execution.getOptions();
+        PartitionMetrics metrics = execution.getMetrics();
+        // with fail fast the exception must reach the execution to cancel the other partitions
+        boolean isToThrowException = options.isToThrow() || options.isFailFast();
+        RetryPolicy retryPolicy = options.getRetryPolicy();
+        // an attempt that will be retried and a hedge must throw, so the task sees the failure
+        return new PartitionTask<>(partitionNumber, attempt -> exceptionHandlingWrapper(partition, partitionFunction,
+                partitionNumber, exception -> isToThrowException || attempt == PartitionTask.HEDGE_ATTEMPT
+                        || retryPolicy.shouldRetry(exception, attempt), metrics),
+                retryPolicy);
+    }
+
+    private PartitionMetrics getPartitionMetrics(Executor executor) {
+        ExecutorMetricsBinder metricsBinder = executorServiceManager.getMetricsBinder();
+        if (metricsBinder == null) {
+            return PartitionMetrics.NOOP;
+        }
+        String executorName = Objects.requireNonNullElse(executorServiceManager.getExecutorName(executor),
+                CUSTOM_EXECUTOR);
+        return partitionMetrics.computeIfAbsent(executorName, name -> PartitionMetrics.of(metricsBinder, name));
+    }
+
+    private <T,R> R exceptionHandlingWrapper(T parameters , GenericOperation<T, R> operation, int partitionNumber,boolean isToThrowException) {
+        return exceptionHandlingWrapper(parameters, operation, partitionNumber, isToThrowException,
+                PartitionMetrics.NOOP);
     }
 
     // this method is used to handle exceptions in the function
     // the method returns null in case of an exception
     // currently the exception is only logged, but it can be handled differently
-    private <T,R> R exceptionHandlingWrapper(T parameters , GenericOperation<T, R> operation, int partitionNumber,boolean isToThrowException) {
+    private <T,R> R exceptionHandlingWrapper(T parameters , GenericOperation<T, R> operation, int partitionNumber,
+                                             boolean isToThrowException, PartitionMetrics metrics) {
+        return exceptionHandlingWrapper(parameters, operation, partitionNumber, exception -> isToThrowException,
+                metrics);
+    }
+
+    private <T,R> R exceptionHandlingWrapper(T parameters , GenericOperation<T, R> operation, int partitionNumber,
+                                             Predicate<Exception> isToThrowException, PartitionMetrics metrics) {
+        long start = System.nanoTime();
         try {
             return operation.accept(parameters);
         } catch (Exception e) {
+            metrics.recordFailure();
             log.warn("Exception occurred while executing operation on partition number {} with parameters {}: {}",
                     partitionNumber, parameters, e.getMessage());
-            if(isToThrowException){
+            if(isToThrowException.test(e)){
                 throw e;
             }
+        } finally {
+            // recorded before the partition completes, so the metrics are up-to-date once the call returns
+            metrics.recordPartitionDuration(System.nanoTime() - start);
         }
         return null;
     }
 
-}
\ No newline at end of file
+}
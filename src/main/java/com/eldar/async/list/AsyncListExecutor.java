@@ -1,9 +1,19 @@
 package com.eldar.async.list;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
 public interface AsyncListExecutor {
     /**
@@ -81,4 +91,790 @@ public interface AsyncListExecutor {
      * @param <T> - the type of the items in the list
      */
     <T> void withPartition(List<T> items, Consumer<List<T>> function, boolean isToThrow);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using a custom thread pool, with per call options such as the
+     * timeout and the fail fast policy.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function(Consumer) to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param executor      - the executor to use for the execution
+     * @param options       - the options of the call
+     * @param <T>           - the type of the items in the list
+     */
+    <T> void withPartition(List<T> items, Consumer<List<T>> function, int partitionSize, Executor executor,
+                           PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using a custom thread pool, with per call options such as the
+     * timeout and the fail fast policy.
+     *
+     * @param items           - the list of items to execute the function on
+     * @param function        - the function to execute on the list
+     * @param partitionSize   - the size of the partition to split the list into
+     * @param executor        - the executor to use for the execution
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param options         - the options of the call
+     * @param <T>             - the type of the items in the list
+     * @param <R>             - the return type of the function
+     * @return the result of the function
+     */
+    <T, R> R withPartition(List<T> items, Function<List<T>, R> function, int partitionSize, Executor executor,
+                           Function<List<R>, R> combineFunction, PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * with a partition size chosen automatically, using the default thread pool.
+     * The partition size is derived from the list size, the pool size and the per-item latency measured on earlier
+     * calls with the same operation key, and keeps adapting over time.
+     *
+     * @param operationKey - a key identifying the operation, calls with the same key share latency statistics
+     * @param items        - the list of items to execute the function on
+     * @param function     - the function(Consumer) to execute on the list
+     * @param <T>          - the type of the items in the list
+     */
+    <T> void withAutoPartition(String operationKey, List<T> items, Consumer<List<T>> function);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * with a partition size chosen automatically, using a custom thread pool.
+     *
+     * @param operationKey - a key identifying the operation, calls with the same key share latency statistics
+     * @param items        - the list of items to execute the function on
+     * @param function     - the function(Consumer) to execute on the list
+     * @param executor     - the executor to use for the execution
+     * @param <T>          - the type of the items in the list
+     */
+    <T> void withAutoPartition(String operationKey, List<T> items, Consumer<List<T>> function, Executor executor);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * with a partition size chosen automatically, using the default thread pool.
+     *
+     * @param operationKey    - a key identifying the operation, calls with the same key share latency statistics
+     * @param items           - the list of items to execute the function on
+     * @param function        - the function to execute on the list
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param <T>             - the type of the items in the list
+     * @param <R>             - the return type of the function
+     * @return the result of the function
+     */
+    <T, R> R withAutoPartition(String operationKey, List<T> items, Function<List<T>, R> function,
+                               Function<List<R>, R> combineFunction);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * with a partition size chosen automatically, using a custom thread pool.
+     *
+     * @param operationKey    - a key identifying the operation, calls with the same key share latency statistics
+     * @param items           - the list of items to execute the function on
+     * @param function        - the function to execute on the list
+     * @param executor        - the executor to use for the execution
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param <T>             - the type of the items in the list
+     * @param <R>             - the return type of the function
+     * @return the result of the function
+     */
+    <T, R> R withAutoPartition(String operationKey, List<T> items, Function<List<T>, R> function, Executor executor,
+                               Function<List<R>, R> combineFunction);
+
+    /**
+     * This method is used to execute a function on an array of int values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using the default thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     */
+    void withPartition(int[] items, IntArrayRangeConsumer function, int partitionSize);
+
+    /**
+     * This method is used to execute a function on an array of int values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using a custom thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param executor      - the executor to use for the execution
+     */
+    void withPartition(int[] items, IntArrayRangeConsumer function, int partitionSize, Executor executor);
+
+    /**
+     * This method is used to execute a function on an array of long values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using the default thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     */
+    void withPartition(long[] items, LongArrayRangeConsumer function, int partitionSize);
+
+    /**
+     * This method is used to execute a function on an array of long values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using a custom thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param executor      - the executor to use for the execution
+     */
+    void withPartition(long[] items, LongArrayRangeConsumer function, int partitionSize, Executor executor);
+
+    /**
+     * This method is used to execute a function on an array of double values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using the default thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     */
+    void withPartition(double[] items, DoubleArrayRangeConsumer function, int partitionSize);
+
+    /**
+     * This method is used to execute a function on an array of double values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using a custom thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param executor      - the executor to use for the execution
+     */
+    void withPartition(double[] items, DoubleArrayRangeConsumer function, int partitionSize, Executor executor);
+
+    /**
+     * This method is used to execute a function on an array of int values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using the default thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging the results of two slices
+     * @return the merged result of the function, the first failed slice is thrown
+     */
+    int withPartitionReduce(int[] items, IntArrayRangeFunction function, int partitionSize,
+                            int identity, IntBinaryOperator combiner);
+
+    /**
+     * This method is used to execute a function on an array of int values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using a custom thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param executor      - the executor to use for the execution
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging the results of two slices
+     * @return the merged result of the function, the first failed slice is thrown
+     */
+    int withPartitionReduce(int[] items, IntArrayRangeFunction function, int partitionSize, Executor executor,
+                            int identity, IntBinaryOperator combiner);
+
+    /**
+     * This method is used to execute a function on an array of int values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using a custom thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     * Unless the options are to throw, a failed slice is logged and left out of the result.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param executor      - the executor to use for the execution
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging the results of two slices
+     * @param options       - the options of the call
+     * @return the merged result of the function
+     */
+    int withPartitionReduce(int[] items, IntArrayRangeFunction function, int partitionSize, Executor executor,
+                            int identity, IntBinaryOperator combiner, PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on an array of long values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using the default thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging the results of two slices
+     * @return the merged result of the function, the first failed slice is thrown
+     */
+    long withPartitionReduce(long[] items, LongArrayRangeFunction function, int partitionSize,
+                             long identity, LongBinaryOperator combiner);
+
+    /**
+     * This method is used to execute a function on an array of long values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using a custom thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param executor      - the executor to use for the execution
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging the results of two slices
+     * @return the merged result of the function, the first failed slice is thrown
+     */
+    long withPartitionReduce(long[] items, LongArrayRangeFunction function, int partitionSize, Executor executor,
+                             long identity, LongBinaryOperator combiner);
+
+    /**
+     * This method is used to execute a function on an array of long values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using a custom thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     * Unless the options are to throw, a failed slice is logged and left out of the result.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param executor      - the executor to use for the execution
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging the results of two slices
+     * @param options       - the options of the call
+     * @return the merged result of the function
+     */
+    long withPartitionReduce(long[] items, LongArrayRangeFunction function, int partitionSize, Executor executor,
+                             long identity, LongBinaryOperator combiner, PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on an array of double values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using the default thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging the results of two slices
+     * @return the merged result of the function, the first failed slice is thrown
+     */
+    double withPartitionReduce(double[] items, DoubleArrayRangeFunction function, int partitionSize,
+                               double identity, DoubleBinaryOperator combiner);
+
+    /**
+     * This method is used to execute a function on an array of double values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using a custom thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param executor      - the executor to use for the execution
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging the results of two slices
+     * @return the merged result of the function, the first failed slice is thrown
+     */
+    double withPartitionReduce(double[] items, DoubleArrayRangeFunction function, int partitionSize, Executor executor,
+                               double identity, DoubleBinaryOperator combiner);
+
+    /**
+     * This method is used to execute a function on an array of double values asynchronous, by splitting the array into
+     * partitions and executing the function on each partition using a custom thread pool.
+     * Each partition gets the offset and length of its slice of the original array, the values are not boxed or copied.
+     * Unless the options are to throw, a failed slice is logged and left out of the result.
+     *
+     * @param items         - the array of values to execute the function on
+     * @param function      - the function to execute on each slice of the array
+     * @param partitionSize - the maximum length of a slice
+     * @param executor      - the executor to use for the execution
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging the results of two slices
+     * @param options       - the options of the call
+     * @return the merged result of the function
+     */
+    double withPartitionReduce(double[] items, DoubleArrayRangeFunction function, int partitionSize, Executor executor,
+                               double identity, DoubleBinaryOperator combiner, PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using the default thread pool.
+     * The results are merged with the combiner as soon as partitions complete, in parallel with the partitions that
+     * are still running, instead of combining all of them at the end. A failed partition is logged and merged as the
+     * identity, pass {@link PartitionOptions} to throw it instead.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging two results, only the results of adjacent partitions
+     *                      are merged, in list order
+     * @param <T>           - the type of the items in the list
+     * @param <R>           - the return type of the function
+     * @return the merged result of the function
+     */
+    <T, R> R withPartitionReduce(List<T> items, Function<List<T>, R> function, int partitionSize, R identity,
+                                 BinaryOperator<R> combiner);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using a custom thread pool.
+     * The results are merged with the combiner as soon as partitions complete, on the threads completing them.
+     * A failed partition is logged and merged as the identity, pass {@link PartitionOptions} to throw it instead.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param executor      - the executor to use for the execution
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging two results, only the results of adjacent partitions
+     *                      are merged, in list order
+     * @param <T>           - the type of the items in the list
+     * @param <R>           - the return type of the function
+     * @return the merged result of the function
+     */
+    <T, R> R withPartitionReduce(List<T> items, Function<List<T>, R> function, int partitionSize, Executor executor,
+                                 R identity, BinaryOperator<R> combiner);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using a custom thread pool.
+     * The results are merged with the combiner as soon as partitions complete, on the threads completing them.
+     * If the options are to throw, the first failed partition is thrown to the caller instead of being merged.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param executor      - the executor to use for the execution
+     * @param identity      - the identity value of the combiner, returned when there is nothing to combine
+     * @param combiner      - an associative function merging two results, only the results of adjacent partitions
+     *                      are merged, in list order
+     * @param options       - the options of the call
+     * @param <T>           - the type of the items in the list
+     * @param <R>           - the return type of the function
+     * @return the merged result of the function, the identity if the call failed and the options are not to throw
+     */
+    <T, R> R withPartitionReduce(List<T> items, Function<List<T>, R> function, int partitionSize, Executor executor,
+                                 R identity, BinaryOperator<R> combiner, PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using the default thread pool, without blocking the caller.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function(Consumer) to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param <T>           - the type of the items in the list
+     * @return a future that completes once all the partitions were executed
+     */
+    <T> CompletableFuture<Void> withPartitionAsync(List<T> items, Consumer<List<T>> function, int partitionSize);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using a custom thread pool, without blocking the caller.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function(Consumer) to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param executor      - the executor to use for the execution
+     * @param isToThrow     - if true, the future completes exceptionally with the exception as Cause under
+     *                      'CompletionException', otherwise it will be logged
+     * @param <T>           - the type of the items in the list
+     * @return a future that completes once all the partitions were executed
+     */
+    <T> CompletableFuture<Void> withPartitionAsync(List<T> items, Consumer<List<T>> function, int partitionSize,
+                                                  Executor executor, boolean isToThrow);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using the default thread pool, without blocking the caller.
+     * The results are combined on the thread that completes the last partition.
+     *
+     * @param items           - the list of items to execute the function on
+     * @param function        - the function to execute on the list
+     * @param partitionSize   - the size of the partition to split the list into
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param <T>             - the type of the items in the list
+     * @param <R>             - the return type of the function
+     * @return a future of the result of the function
+     */
+    <T, R> CompletableFuture<R> withPartitionAsync(List<T> items, Function<List<T>, R> function, int partitionSize,
+                                                   Function<List<R>, R> combineFunction);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using a custom thread pool, without blocking the caller.
+     * The results are combined on the thread that completes the last partition.
+     *
+     * @param items           - the list of items to execute the function on
+     * @param function        - the function to execute on the list
+     * @param partitionSize   - the size of the partition to split the list into
+     * @param executor        - the executor to use for the execution
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param isToThrow       - if true, the future completes exceptionally with the exception as Cause under
+     *                        'CompletionException', otherwise it will be logged
+     * @param <T>             - the type of the items in the list
+     * @param <R>             - the return type of the function
+     * @return a future of the result of the function
+     */
+    <T, R> CompletableFuture<R> withPartitionAsync(List<T> items, Function<List<T>, R> function, int partitionSize,
+                                                   Executor executor, Function<List<R>, R> combineFunction,
+                                                   boolean isToThrow);
+
+    /**
+     * Same as {@link #withPartitionAsync(List, Consumer, int, Executor, boolean)}, with per call options such as the
+     * timeout and the fail fast policy.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function(Consumer) to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param executor      - the executor to use for the execution
+     * @param options       - the options of the call
+     * @param <T>           - the type of the items in the list
+     * @return a future that completes once all the partitions were executed
+     */
+    <T> CompletableFuture<Void> withPartitionAsync(List<T> items, Consumer<List<T>> function, int partitionSize,
+                                                  Executor executor, PartitionOptions options);
+
+    /**
+     * Same as {@link #withPartitionAsync(List, Function, int, Executor, Function, boolean)}, with per call options
+     * such as the timeout and the fail fast policy.
+     *
+     * @param items           - the list of items to execute the function on
+     * @param function        - the function to execute on the list
+     * @param partitionSize   - the size of the partition to split the list into
+     * @param executor        - the executor to use for the execution
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param options         - the options of the call
+     * @param <T>             - the type of the items in the list
+     * @param <R>             - the return type of the function
+     * @return a future of the result of the function
+     */
+    <T, R> CompletableFuture<R> withPartitionAsync(List<T> items, Function<List<T>, R> function, int partitionSize,
+                                                   Executor executor, Function<List<R>, R> combineFunction,
+                                                   PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a stream of items asynchronous, without loading all the items
+     * into memory. The items are pulled lazily into partitions and at most maxInFlight partitions are executed or
+     * queued at the same time, the calling thread blocks until a partition completes when the limit is reached.
+     *
+     * @param items         - the iterator of items to execute the function on
+     * @param function      - the function(Consumer) to execute on each partition
+     * @param partitionSize - the size of the partition to split the items into
+     * @param maxInFlight   - the maximum number of partitions submitted and not yet completed
+     * @param executor      - the executor to use for the execution
+     * @param <T>           - the type of the items
+     */
+    <T> void withStreamingPartition(Iterator<T> items, Consumer<List<T>> function, int partitionSize, int maxInFlight,
+                                    Executor executor);
+
+    /**
+     * Same as {@link #withStreamingPartition(Iterator, Consumer, int, int, Executor)}, the stream is closed once
+     * all the items were consumed.
+     *
+     * @param items         - the stream of items to execute the function on
+     * @param function      - the function(Consumer) to execute on each partition
+     * @param partitionSize - the size of the partition to split the items into
+     * @param maxInFlight   - the maximum number of partitions submitted and not yet completed
+     * @param executor      - the executor to use for the execution
+     * @param <T>           - the type of the items
+     */
+    <T> void withStreamingPartition(Stream<T> items, Consumer<List<T>> function, int partitionSize, int maxInFlight,
+                                    Executor executor);
+
+    /**
+     * Same as {@link #withStreamingPartition(Iterator, Consumer, int, int, Executor)}, with the options of the call.
+     * The timeout covers the whole call, including the time the calling thread blocks on a full window. On timeout
+     * the remaining items are not pulled and the outstanding partitions are cancelled.
+     *
+     * @param items         - the iterator of items to execute the function on
+     * @param function      - the function(Consumer) to execute on each partition
+     * @param partitionSize - the size of the partition to split the items into
+     * @param maxInFlight   - the maximum number of partitions submitted and not yet completed
+     * @param executor      - the executor to use for the execution
+     * @param options       - the options of the call
+     * @param <T>           - the type of the items
+     */
+    <T> void withStreamingPartition(Iterator<T> items, Consumer<List<T>> function, int partitionSize, int maxInFlight,
+                                    Executor executor, PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a stream of items asynchronous, without loading all the items
+     * into memory. The items are pulled lazily into partitions and at most maxInFlight partitions are executed or
+     * queued at the same time. Only the results of the partitions are kept until they are combined.
+     *
+     * @param items           - the iterator of items to execute the function on
+     * @param function        - the function to execute on each partition
+     * @param partitionSize   - the size of the partition to split the items into
+     * @param maxInFlight     - the maximum number of partitions submitted and not yet completed
+     * @param executor        - the executor to use for the execution
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param <T>             - the type of the items
+     * @param <R>             - the return type of the function
+     * @return the result of the function
+     */
+    <T, R> R withStreamingPartition(Iterator<T> items, Function<List<T>, R> function, int partitionSize,
+                                    int maxInFlight, Executor executor, Function<List<R>, R> combineFunction);
+
+    /**
+     * Same as {@link #withStreamingPartition(Iterator, Function, int, int, Executor, Function)}, with the options of
+     * the call. The timeout covers the whole call, including the time the calling thread blocks on a full window. On
+     * timeout the remaining items are not pulled and the outstanding partitions are cancelled.
+     *
+     * @param items           - the iterator of items to execute the function on
+     * @param function        - the function to execute on each partition
+     * @param partitionSize   - the size of the partition to split the items into
+     * @param maxInFlight     - the maximum number of partitions submitted and not yet completed
+     * @param executor        - the executor to use for the execution
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param options         - the options of the call
+     * @param <T>             - the type of the items
+     * @param <R>             - the return type of the function
+     * @return the result of the function
+     */
+    <T, R> R withStreamingPartition(Iterator<T> items, Function<List<T>, R> function, int partitionSize,
+                                    int maxInFlight, Executor executor, Function<List<R>, R> combineFunction,
+                                    PartitionOptions options);
+
+    /**
+     * Same as {@link #withStreamingPartition(Iterator, Function, int, int, Executor, Function)}, the stream is
+     * closed once all the items were consumed.
+     *
+     * @param items           - the stream of items to execute the function on
+     * @param function        - the function to execute on each partition
+     * @param partitionSize   - the size of the partition to split the items into
+     * @param maxInFlight     - the maximum number of partitions submitted and not yet completed
+     * @param executor        - the executor to use for the execution
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param <T>             - the type of the items
+     * @param <R>             - the return type of the function
+     * @return the result of the function
+     */
+    <T, R> R withStreamingPartition(Stream<T> items, Function<List<T>, R> function, int partitionSize,
+                                    int maxInFlight, Executor executor, Function<List<R>, R> combineFunction);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using the default thread pool.
+     * The result of every partition is published as soon as it completes, in completion order, instead of waiting for
+     * all the partitions.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param <T>           - the type of the items in the list
+     * @param <R>           - the return type of the function
+     * @return a publisher of the partition results, see {@link #withPartitionPublisher(List, Function, int, Executor)}
+     */
+    <T, R> Flow.Publisher<R> withPartitionPublisher(List<T> items, Function<List<T>, R> function, int partitionSize);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using a custom thread pool.
+     * The result of every partition is published as soon as it completes, in completion order, instead of waiting for
+     * all the partitions.
+     * <p>
+     * The publisher accepts a single subscriber. Partitions are submitted as the subscriber requests results, one
+     * partition for every requested result, so a slow subscriber slows down the execution instead of buffering
+     * results. Null results are not published. The first failed partition cancels the remaining partitions and is
+     * signalled with {@code onError}, cancelling the subscription cancels the remaining partitions as well.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param executor      - the executor to use for the execution
+     * @param <T>           - the type of the items in the list
+     * @param <R>           - the return type of the function
+     * @return a publisher of the partition results
+     */
+    <T, R> Flow.Publisher<R> withPartitionPublisher(List<T> items, Function<List<T>, R> function, int partitionSize,
+                                                    Executor executor);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using the default thread pool.
+     * Returns the outcome of every partition instead of combining the results.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param <T>           - the type of the items in the list
+     * @param <R>           - the return type of the function
+     * @return the outcome of every partition, see
+     * {@link #withPartitionedResult(List, Function, int, Executor, PartitionOptions)}
+     */
+    <T, R> PartitionedResult<R> withPartitionedResult(List<T> items, Function<List<T>, R> function, int partitionSize);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by splitting the list into partitions
+     * and executing the function on each partition using a custom thread pool, with per call options.
+     * Returns the outcome of every partition instead of combining the results.
+     * <p>
+     * Every outcome has the item range of the partition, its status, its result or exception, and the queue wait and
+     * execution time of its last attempt. Failed partitions, a rejection by the executor and an expired timeout are
+     * reported in the outcomes instead of being thrown, so {@code toThrow} is ignored. Fail fast, retries and the
+     * priority apply as in the other calls.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function to execute on the list
+     * @param partitionSize - the size of the partition to split the list into
+     * @param executor      - the executor to use for the execution
+     * @param options       - the options of the call
+     * @param <T>           - the type of the items in the list
+     * @param <R>           - the return type of the function
+     * @return the outcome of every partition, in partition order
+     */
+    <T, R> PartitionedResult<R> withPartitionedResult(List<T> items, Function<List<T>, R> function, int partitionSize,
+                                                      Executor executor, PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by grouping the items into
+     * partitions by their key and executing the function on each partition using the default thread pool.
+     * All the items with the same key are in the same partition, in their order in the list, so they are processed
+     * one after the other by a single task and never concurrently, e.g. updates of the same row don't contend for
+     * its lock.
+     *
+     * @param items          - the list of items to execute the function on
+     * @param keyExtractor   - extracts the key of an item
+     * @param function       - the function(Consumer) to execute on the list
+     * @param partitionCount - the maximum number of partitions, fewer if there are fewer distinct keys
+     * @param <T>            - the type of the items in the list
+     * @param <K>            - the type of the key
+     */
+    <T, K> void withPartitionByKey(List<T> items, Function<T, K> keyExtractor, Consumer<List<T>> function,
+                                   int partitionCount);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by grouping the items into
+     * partitions by their key and executing the function on each partition using a custom thread pool, with per call
+     * options. A key is mapped to a partition by its hash, so it's in the same partition in every call with the same
+     * partition count.
+     *
+     * @param items          - the list of items to execute the function on
+     * @param keyExtractor   - extracts the key of an item
+     * @param function       - the function(Consumer) to execute on the list
+     * @param partitionCount - the maximum number of partitions, fewer if there are fewer distinct keys
+     * @param executor       - the executor to use for the execution
+     * @param options        - the options of the call
+     * @param <T>            - the type of the items in the list
+     * @param <K>            - the type of the key
+     */
+    <T, K> void withPartitionByKey(List<T> items, Function<T, K> keyExtractor, Consumer<List<T>> function,
+                                   int partitionCount, Executor executor, PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a list of items asynchronous, by grouping the items into
+     * partitions by their key and executing the function on each partition using a custom thread pool, with per call
+     * options.
+     *
+     * @param items           - the list of items to execute the function on
+     * @param keyExtractor    - extracts the key of an item
+     * @param function        - the function to execute on the list
+     * @param partitionCount  - the maximum number of partitions, fewer if there are fewer distinct keys
+     * @param executor        - the executor to use for the execution
+     * @param combineFunction - the function to combine the results of the function on each partition
+     * @param options         - the options of the call
+     * @param <T>             - the type of the items in the list
+     * @param <K>             - the type of the key
+     * @param <R>             - the return type of the function
+     * @return the result of the function
+     */
+    <T, K, R> R withPartitionByKey(List<T> items, Function<T, K> keyExtractor, Function<List<T>, R> function,
+                                   int partitionCount, Executor executor, Function<List<R>, R> combineFunction,
+                                   PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a list of items of uneven cost asynchronous, by splitting the list
+     * into partitions of roughly equal total weight and executing the function on each partition using the default
+     * thread pool. The heaviest partitions are submitted first.
+     *
+     * @param items            - the list of items to execute the function on
+     * @param weigher          - the weight of an item, e.g. its size in bytes, must not be negative
+     * @param function         - the function(Consumer) to execute on the list
+     * @param partitionCount   - the number of partitions, more if the items don't fit in them
+     * @param maxPartitionSize - the maximum number of items in a partition
+     * @param <T>              - the type of the items in the list
+     */
+    <T> void withWeightedPartition(List<T> items, ToLongFunction<T> weigher, Consumer<List<T>> function,
+                                   int partitionCount, int maxPartitionSize);
+
+    /**
+     * This method is used to execute a function on a list of items of uneven cost asynchronous, by splitting the list
+     * into partitions of roughly equal total weight and executing the function on each partition using a custom
+     * thread pool, with per call options. The heaviest partitions are submitted first.
+     *
+     * @param items            - the list of items to execute the function on
+     * @param weigher          - the weight of an item, e.g. its size in bytes, must not be negative
+     * @param function         - the function(Consumer) to execute on the list
+     * @param partitionCount   - the number of partitions, more if the items don't fit in them
+     * @param maxPartitionSize - the maximum number of items in a partition
+     * @param executor         - the executor to use for the execution
+     * @param options          - the options of the call
+     * @param <T>              - the type of the items in the list
+     */
+    <T> void withWeightedPartition(List<T> items, ToLongFunction<T> weigher, Consumer<List<T>> function,
+                                   int partitionCount, int maxPartitionSize, Executor executor,
+                                   PartitionOptions options);
+
+    /**
+     * This method is used to execute a function on a list of items of uneven cost asynchronous, by splitting the list
+     * into partitions of roughly equal total weight and executing the function on each partition using a custom
+     * thread pool, with per call options. The heaviest partitions are submitted first.
+     *
+     * @param items            - the list of items to execute the function on
+     * @param weigher          - the weight of an item, e.g. its size in bytes, must not be negative
+     * @param function         - the function to execute on the list
+     * @param partitionCount   - the number of partitions, more if the items don't fit in them
+     * @param maxPartitionSize - the maximum number of items in a partition
+     * @param executor         - the executor to use for the execution
+     * @param combineFunction  - the function to combine the results of the function on each partition
+     * @param options          - the options of the call
+     * @param <T>              - the type of the items in the list
+     * @param <R>              - the return type of the function
+     * @return the result of the function
+     */
+    <T, R> R withWeightedPartition(List<T> items, ToLongFunction<T> weigher, Function<List<T>, R> function,
+                                   int partitionCount, int maxPartitionSize, Executor executor,
+                                   Function<List<R>, R> combineFunction, PartitionOptions options);
+
+    /**
+     * This method is used to execute an idempotent function on a list of items asynchronous, computing only the items
+     * missing from a cache, by splitting them into partitions and executing the function on each partition using the
+     * default thread pool.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function to execute on the list, returns the value of every item of the partition
+     * @param partitionSize - the size of the partition to split the missing items into
+     * @param cache         - the cache of the values of the items, shared by the calls with the same function
+     * @param <T>           - the type of the items in the list
+     * @param <V>           - the type of the values of the items
+     * @return the value of every item that has one, see
+     * {@link #withCachedPartition(List, Function, int, PartitionCache, Executor, PartitionOptions)}
+     */
+    <T, V> Map<T, V> withCachedPartition(List<T> items, Function<List<T>, Map<T, V>> function, int partitionSize,
+                                         PartitionCache<T, V> cache);
+
+    /**
+     * This method is used to execute an idempotent function on a list of items asynchronous, computing only the items
+     * missing from a cache, by splitting them into partitions and executing the function on each partition using a
+     * custom thread pool, with per call options.
+     * <p>
+     * Cached items are served on the calling thread, only the missing items are partitioned onto the executor.
+     * Items being computed by a concurrent call are waited for instead of being computed again. Items the function
+     * returns no value for, or fails on, are not cached and are missing from the result.
+     *
+     * @param items         - the list of items to execute the function on
+     * @param function      - the function to execute on the list, returns the value of every item of the partition
+     * @param partitionSize - the size of the partition to split the missing items into
+     * @param cache         - the cache of the values of the items, shared by the calls with the same function
+     * @param executor      - the executor to use for the execution
+     * @param options       - the options of the call
+     * @param <T>           - the type of the items in the list
+     * @param <V>           - the type of the values of the items
+     * @return the value of every item that has one
+     */
+    <T, V> Map<T, V> withCachedPartition(List<T> items, Function<List<T>, Map<T, V>> function, int partitionSize,
+                                         PartitionCache<T, V> cache, Executor executor, PartitionOptions options);
 }
@@ -0,0 +1,17 @@
+package com.eldar.async.list;
+
+/**
+ * A function on a slice of a {@code double[]} producing a {@code double} result.
+ * The array is shared by all the partitions, only the elements of the slice should be accessed.
+ */
+@FunctionalInterface
+public interface DoubleArrayRangeFunction {
+
+    /**
+     * @param array  - the whole array
+     * @param offset - the index of the first element of the slice
+     * @param length - the number of elements in the slice
+     * @return the result of the slice
+     */
+    double applyAsDouble(double[] array, int offset, int length);
+}
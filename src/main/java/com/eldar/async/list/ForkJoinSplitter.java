@@ -0,0 +1,89 @@
+package com.eldar.async.list;
+
+import com.eldar.async.ContextSnapshot;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Splits a partition running on a {@link ForkJoinPool} further while other workers of the pool are idle.
+ * <p>
+ * The partition is halved as long as the worker has no surplus of queued tasks, i.e. there are idle workers that
+ * could steal the forked half, and the halves are not smaller than the minimum split size. The results of the halves
+ * are combined with the combine function of the call, so uneven partitions don't leave cores idle.
+ * A forked half that is stolen by another worker runs with the MDC and security context of the worker that split the
+ * partition, captured once per partition.
+ */
+class ForkJoinSplitter<T, R> extends RecursiveTask<R> {
+
+    // a partition is split into at most this number of parts
+    static final int MAX_SPLIT_FACTOR = 16;
+
+    private final List<T> items;
+    private final AbstractAsyncExecutor.GenericOperation<List<T>, R> operation;
+    private final Function<List<R>, R> combineFunction;
+    private final int minSplitSize;
+    private final Thread forkingThread;
+    private final ContextSnapshot contextSnapshot;
+
+    private ForkJoinSplitter(List<T> items, AbstractAsyncExecutor.GenericOperation<List<T>, R> operation,
+                             Function<List<R>, R> combineFunction, int minSplitSize, ContextSnapshot contextSnapshot) {
+        this.items = items;
+        this.operation = operation;
+        this.combineFunction = combineFunction;
+        this.minSplitSize = minSplitSize;
+        this.forkingThread = Thread.currentThread();
+        this.contextSnapshot = contextSnapshot;
+    }
+
+    /**
+     * Wraps the operation, so it splits the partition when executed by a worker of a fork join pool.
+     *
+     * @param operation       - the operation to execute on each part of the partition
+     * @param combineFunction - the function to combine the results of the parts, null if there are no results
+     * @param partitionSize   - the size of the partitions of the call
+     * @return the splitting operation
+     */
+    static <T, R> AbstractAsyncExecutor.GenericOperation<List<T>, R> splitting(
+            AbstractAsyncExecutor.GenericOperation<List<T>, R> operation, Function<List<R>, R> combineFunction,
+            int partitionSize) {
+        int minSplitSize = Math.max(1, partitionSize / MAX_SPLIT_FACTOR);
+        return partition -> ForkJoinTask.inForkJoinPool()
+                ? new ForkJoinSplitter<>(partition, operation, combineFunction, minSplitSize,
+                        ContextSnapshot.capture()).invoke()
+                : operation.accept(partition);
+    }
+
+    @Override
+    protected R compute() {
+        if (Thread.currentThread() == forkingThread) {
+            return split();
+        }
+        // stolen by another worker
+        try (ContextSnapshot.Scope ignored = contextSnapshot.apply()) {
+            return split();
+        }
+    }
+
+    private R split() {
+        if (items.size() < 2 * minSplitSize || getSurplusQueuedTaskCount() > 0) {
+            return operation.accept(items);
+        }
+        int middle = items.size() / 2;
+        ForkJoinSplitter<T, R> right = new ForkJoinSplitter<>(items.subList(middle, items.size()), operation,
+                combineFunction, minSplitSize, contextSnapshot);
+        right.fork();
+        R leftResult = new ForkJoinSplitter<>(items.subList(0, middle), operation, combineFunction, minSplitSize,
+                contextSnapshot).compute();
+        R rightResult = right.join();
+        if (combineFunction == null) {
+            return null;
+        }
+        return combineFunction.apply(Stream.of(leftResult, rightResult).filter(Objects::nonNull).toList());
+    }
+}
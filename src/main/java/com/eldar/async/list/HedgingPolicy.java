@@ -0,0 +1,66 @@
+package com.eldar.async.list;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Hedging policy of the partitions of a call, see {@link PartitionOptions#getHedgingPolicy()}.
+ * <p>
+ * A partition that runs longer than the given percentile of the execution times of its completed siblings is
+ * considered a straggler, e.g. because its worker is stuck in a GC pause or it hit a slow replica. A duplicate of it
+ * is submitted to the executor, the first of the two to succeed completes the partition and the other one is
+ * interrupted. Only use it with idempotent functions, as both copies may run to completion.
+ */
+@Getter
+@ToString
+@Builder(toBuilder = true)
+public class HedgingPolicy {
+
+    /**
+     * No hedging.
+     */
+    public static final HedgingPolicy NONE = HedgingPolicy.builder().enabled(false).build();
+
+    @Builder.Default
+    private final boolean enabled = true;
+
+    /**
+     * Percentile, between 0 and 1, of the execution times of the completed partitions after which a running partition
+     * is hedged.
+     */
+    @Builder.Default
+    private final double percentile = 0.95;
+
+    /**
+     * Number of partitions that must complete before the percentile is trusted and partitions are hedged.
+     */
+    @Builder.Default
+    private final int minSamples = 5;
+
+    /**
+     * Cap of the extra load, the maximum number of hedges as a fraction of the number of partitions of the call,
+     * rounded up.
+     */
+    @Builder.Default
+    private final double maxExtraLoad = 0.1;
+
+    /**
+     * @return the maximum number of hedges of a call with the given number of partitions
+     */
+    int maxHedges(int partitionCount) {
+        return (int) Math.ceil(partitionCount * maxExtraLoad);
+    }
+
+    void validate() {
+        if (percentile <= 0 || percentile > 1) {
+            throw new IllegalArgumentException("Hedging percentile must be greater than 0 and not greater than 1");
+        }
+        if (minSamples < 1) {
+            throw new IllegalArgumentException("Hedging min samples must be greater than 0");
+        }
+        if (maxExtraLoad < 0 || maxExtraLoad > 1) {
+            throw new IllegalArgumentException("Hedging max extra load must be between 0 and 1");
+        }
+    }
+}
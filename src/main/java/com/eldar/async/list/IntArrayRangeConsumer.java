@@ -0,0 +1,16 @@
+package com.eldar.async.list;
+
+/**
+ * An operation on a slice of an {@code int[]}.
+ * The array is shared by all the partitions, only the elements of the slice should be accessed.
+ */
+@FunctionalInterface
+public interface IntArrayRangeConsumer {
+
+    /**
+     * @param array  - the whole array
+     * @param offset - the index of the first element of the slice
+     * @param length - the number of elements in the slice
+     */
+    void accept(int[] array, int offset, int length);
+}
@@ -0,0 +1,47 @@
+package com.eldar.async.list;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Groups the items of a list into partitions by the hash of their key, see
+ * {@link AsyncListExecutor#withPartitionByKey(List, Function, java.util.function.Consumer, int)}.
+ * <p>
+ * All the items with the same key land in the same partition, in their order in the list, so a single task processes
+ * them one after the other. A key is always mapped to the same partition for the same partition count, so calls with
+ * overlapping keys group them the same way.
+ */
+final class KeyPartitioner {
+
+    private KeyPartitioner() {
+    }
+
+    /**
+     * @param items          - the items to group
+     * @param keyExtractor   - extracts the key of an item, null keys are grouped together
+     * @param partitionCount - the maximum number of partitions
+     * @return the non-empty partitions, ordered by the partition the keys are mapped to
+     */
+    static <T, K> List<List<T>> partition(List<T> items, Function<T, K> keyExtractor, int partitionCount) {
+        List<List<T>> buckets = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (T item : items) {
+            buckets.get(indexOf(keyExtractor.apply(item), partitionCount)).add(item);
+        }
+        buckets.removeIf(List::isEmpty);
+        return buckets;
+    }
+
+    /**
+     * @return the partition of the key, between 0 and the partition count exclusive
+     */
+    static int indexOf(Object key, int partitionCount) {
+        int hash = Objects.hashCode(key);
+        // spread the high bits, like HashMap, so keys differing only in the high bits don't collide
+        return Math.floorMod(hash ^ (hash >>> 16), partitionCount);
+    }
+}
@@ -0,0 +1,16 @@
+package com.eldar.async.list;
+
+/**
+ * An operation on a slice of a {@code long[]}.
+ * The array is shared by all the partitions, only the elements of the slice should be accessed.
+ */
+@FunctionalInterface
+public interface LongArrayRangeConsumer {
+
+    /**
+     * @param array  - the whole array
+     * @param offset - the index of the first element of the slice
+     * @param length - the number of elements in the slice
+     */
+    void accept(long[] array, int offset, int length);
+}
@@ -0,0 +1,150 @@
+package com.eldar.async.list;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.Builder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * A per-item cache of the results of an idempotent partition function, see
+ * {@link AsyncListExecutor#withCachedPartition(java.util.List, java.util.function.Function, int, PartitionCache)}.
+ * <p>
+ * The cache is bounded by the number of items or by their total weight, and an item expires a fixed time after it
+ * was computed. An item being computed by one call is tracked as a pending future outside the bounded cache, so it
+ * can't expire or be evicted while it's computed, and concurrent calls missing the same item wait for it instead of
+ * computing it again. Items the function fails on or returns no value for are not cached.
+ *
+ * @param <K> - the type of the items
+ * @param <V> - the type of the values computed for the items
+ */
+public class PartitionCache<K, V> {
+
+    private final Cache<K, V> cache;
+    private final ConcurrentHashMap<K, CompletableFuture<Optional<V>>> pending = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param maximumSize      - the maximum number of cached items, either this or the maximum weight must be set
+     * @param maximumWeight    - the maximum total weight of the cached items, requires a weigher
+     * @param weigher          - the weight of an item and its value, e.g. the size of the value in bytes
+     * @param expireAfterWrite - the time an item is cached after it was computed
+     */
+    @Builder
+    private PartitionCache(long maximumSize, long maximumWeight, ToIntBiFunction<K, V> weigher,
+                           Duration expireAfterWrite) {
+        if ((maximumSize > 0) == (maximumWeight > 0)) {
+            throw new IllegalArgumentException("Exactly one of maximum size and maximum weight must be greater than 0");
+        }
+        if (maximumWeight > 0 && weigher == null) {
+            throw new IllegalArgumentException("Weigher must not be null with a maximum weight");
+        }
+        if (expireAfterWrite == null || expireAfterWrite.isNegative() || expireAfterWrite.isZero()) {
+            throw new IllegalArgumentException("Expire after write must be greater than 0");
+        }
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .expireAfterWrite(expireAfterWrite.toNanos(), TimeUnit.NANOSECONDS);
+        if (maximumSize > 0) {
+            builder.maximumSize(maximumSize);
+        } else {
+            builder.maximumWeight(maximumWeight).<K, V>weigher(weigher::applyAsInt);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * @return the counters of the cache since it was created
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), coalesced.sum(), cache.stats().evictionCount(),
+                cache.size() + pending.size());
+    }
+
+    /**
+     * Invalidates the item, a value being computed for it is not cached once computed.
+     */
+    public void invalidate(K item) {
+        pending.remove(item);
+        cache.invalidate(item);
+    }
+
+    public void invalidateAll() {
+        pending.clear();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Claims the computation of the item, unless it's cached or being computed by another call.
+     *
+     * @param pending - the future the caller completes once the item is computed
+     * @return the future of the cached or pending item, null if the caller claimed the item
+     */
+    CompletableFuture<Optional<V>> claim(K item, CompletableFuture<Optional<V>> pending) {
+        V value = cache.getIfPresent(item);
+        if (value == null) {
+            CompletableFuture<Optional<V>> existing = this.pending.putIfAbsent(item, pending);
+            if (existing != null) {
+                coalesced.increment();
+                return existing;
+            }
+            // the item may have been computed between the lookup and the claim
+            value = cache.getIfPresent(item);
+            if (value == null) {
+                misses.increment();
+                return null;
+            }
+            // calls that coalesced on the claim meanwhile get the cached value too
+            this.pending.remove(item, pending);
+            pending.complete(Optional.of(value));
+        }
+        hits.increment();
+        return CompletableFuture.completedFuture(Optional.of(value));
+    }
+
+    /**
+     * Completes a claimed item, the item is cached only if it has a value and wasn't invalidated meanwhile.
+     * The item expires the expire after write time after this, however long it took to compute.
+     */
+    void complete(K item, CompletableFuture<Optional<V>> pending, Optional<V> value) {
+        // cached before the claim is released, so a concurrent miss finds either of them
+        if (value.isPresent() && this.pending.get(item) == pending) {
+            cache.put(item, value.get());
+        }
+        this.pending.remove(item, pending);
+        pending.complete(value);
+    }
+
+    /**
+     * Fails a claimed item, it's removed so the next call computes it again.
+     */
+    void fail(K item, CompletableFuture<Optional<V>> pending, Throwable exception) {
+        this.pending.remove(item, pending);
+        pending.completeExceptionally(exception);
+    }
+
+    /**
+     * @param hits      - items served from the cache
+     * @param misses    - items computed by the call that missed them
+     * @param coalesced - items missed while being computed by another call, which the call waited for
+     * @param evictions - items evicted by the size or weight bound, or expired
+     * @param size      - the approximate number of cached and pending items
+     */
+    public record Stats(long hits, long misses, long coalesced, long evictions, long size) {
+
+        /**
+         * @return the fraction of the requested items that were not computed again, 0 if none were requested
+         */
+        public double hitRate() {
+            long requests = hits + misses + coalesced;
+            return requests == 0 ? 0 : (double) (hits + coalesced) / requests;
+        }
+    }
+}
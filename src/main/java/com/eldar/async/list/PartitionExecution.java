@@ -0,0 +1,350 @@
+package com.eldar.async.list;
+
+import com.eldar.async.ContextSnapshot;
+import com.eldar.async.executor.PrioritizedRunnable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The partitions submitted by a single call.
+ * <p>
+ * Tracks the first failure of the call, and cancels all its partitions when the call fails fast.
+ * The context of the calling thread is captured once, and shared by all the partitions of the call.
+ * <p>
+ * A call made by a worker of the executor it submits to, e.g. by a partition function making another call, is
+ * nested. Blocking the worker while the nested partitions wait in the queue of the same executor can exhaust the
+ * pool, so the calling worker runs the partitions that no other worker picked up yet itself.
+ * <p>
+ * With a max concurrency, the partitions beyond it are held back by the call instead of being queued in the executor,
+ * and the next one is handed to the executor by the thread completing a partition, so no thread waits for a slot.
+ */
+@Slf4j
+class PartitionExecution<R> {
+
+    // the executor whose partition is running on the current thread, to detect nested calls
+    private static final ThreadLocal<Executor> CURRENT_EXECUTOR = new ThreadLocal<>();
+
+    private final PartitionOptions options;
+    private final PartitionMetrics metrics;
+    private final PartitionHedger<R> hedger; // null if hedging is disabled
+    private final ContextSnapshot contextSnapshot = ContextSnapshot.capture();
+    private final List<PartitionTask<R>> tasks = new ArrayList<>(); // guarded by this
+    // partitions held back by the max concurrency, with their runnables, guarded by this
+    private final ArrayDeque<Map.Entry<PartitionTask<R>, Runnable>> waiting = new ArrayDeque<>();
+    private int inFlight; // partitions handed to the executor and not completed, guarded by this
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final long deadline;
+    private volatile boolean cancelled;
+    private volatile boolean nested;
+    private volatile Executor executor;
+
+    PartitionExecution(PartitionOptions options, PartitionMetrics metrics) {
+        this(options, metrics, 0);
+    }
+
+    PartitionExecution(PartitionOptions options, PartitionMetrics metrics, int partitionCount) {
+        this.options = options;
+        this.metrics = metrics;
+        // taken before the partitions are submitted, so time blocked on a saturated executor counts against the timeout
+        this.deadline = System.nanoTime() + options.getTimeout().toNanos();
+        this.hedger = options.getHedgingPolicy().isEnabled()
+                ? new PartitionHedger<>(options.getHedgingPolicy(), partitionCount, metrics, this::submitHedge)
+                : null;
+    }
+
+    PartitionOptions getOptions() {
+        return options;
+    }
+
+    PartitionMetrics getMetrics() {
+        return metrics;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return the time left until the timeout of the call elapses, in nanos, 0 once it elapsed
+     */
+    long getRemainingNanos() {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    /**
+     * Submits the partition to the executor, unless the call was already cancelled. The partition is held back while
+     * the max concurrency of the call is reached.
+     * If the executor rejects the partition, the partitions submitted before it are cancelled, so they don't keep
+     * running orphaned, and the rejection is rethrown.
+     *
+     * @return false if the call was cancelled and no further partitions should be submitted
+     */
+    boolean submit(PartitionTask<R> task, Executor executor) {
+        synchronized (this) {
+            tasks.add(task);
+        }
+        task.getFuture().whenComplete((result, exception) -> {
+            if (exception != null) {
+                onFailure(exception);
+            }
+        });
+        if (cancelled) {
+            task.cancel();
+            return false;
+        }
+        this.executor = executor;
+        this.nested = isWorkerOf(executor);
+        Runnable submitted = prioritized(contextSnapshot.wrap(runningOn(executor,
+                hedger != null ? hedger.watching(task) : task)));
+        if (options.getRetryPolicy().isEnabled()) {
+            task.setRetryScheduler(backoff -> retry(task, submitted, executor, backoff));
+        }
+        int maxConcurrency = options.getMaxConcurrency();
+        if (maxConcurrency > 0) {
+            synchronized (this) {
+                if (inFlight >= maxConcurrency) {
+                    waiting.add(Map.entry(task, submitted));
+                    return true;
+                }
+                inFlight++;
+            }
+            task.getFuture().whenComplete((result, exception) -> releaseSlot(exception));
+        }
+        try {
+            execute(task, submitted);
+        } catch (RejectedExecutionException e) {
+            log.warn("Partition {} was rejected by the executor, cancelling the call: {}", task.getPartitionNumber(),
+                    e.getMessage());
+            // cancelled before the rejection completes the future, so the released slot doesn't submit another one
+            cancelled = true;
+            task.reject(e);
+            cancel();
+            throw e;
+        }
+        return true;
+    }
+
+    private void execute(PartitionTask<R> task, Runnable submitted) {
+        task.markSubmitted();
+        executor.execute(submitted);
+    }
+
+    // hands the slot of a completed partition to the next held back partition, on the completing thread.
+    // held back partitions that completed meanwhile, cancelled or run by a nested caller, are skipped
+    private void releaseSlot(Throwable completionException) {
+        if (completionException != null) {
+            // dependents run in reverse order, a fail fast call must be cancelled before the next partition is picked
+            onFailure(completionException);
+        }
+        Map.Entry<PartitionTask<R>, Runnable> next;
+        synchronized (this) {
+            do {
+                next = waiting.poll();
+            } while (next != null && next.getKey().getFuture().isDone());
+            if (next == null) {
+                inFlight--;
+                return;
+            }
+        }
+        PartitionTask<R> task = next.getKey();
+        task.getFuture().whenComplete((result, exception) -> releaseSlot(exception));
+        if (cancelled) {
+            task.cancel();
+            return;
+        }
+        try {
+            execute(task, next.getValue());
+        } catch (RejectedExecutionException e) {
+            log.warn("Partition {} was rejected by the executor, cancelling the call: {}", task.getPartitionNumber(),
+                    e.getMessage());
+            cancelled = true;
+            task.reject(e);
+            cancel();
+        }
+    }
+
+    // submits a hedge of a straggler partition to the executor of the call
+    private void submitHedge(PartitionTask<R> hedge) {
+        if (cancelled) {
+            hedge.cancel();
+            return;
+        }
+        hedge.markSubmitted();
+        executor.execute(prioritized(contextSnapshot.wrap(runningOn(executor, hedge))));
+    }
+
+    // resubmits the failed partition once the backoff elapses, the delay doesn't hold a thread of the executor
+    private void retry(PartitionTask<R> task, Runnable submitted, Executor executor, Duration backoff) {
+        if (cancelled) {
+            task.cancel();
+            return;
+        }
+        metrics.recordRetry();
+        log.debug("Retrying partition {} in {} ms", task.getPartitionNumber(), backoff.toMillis());
+        if (nested) {
+            retryInline(task, submitted, backoff);
+            return;
+        }
+        CompletableFuture.delayedExecutor(backoff.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            task.markSubmitted();
+            try {
+                executor.execute(submitted);
+            } catch (RejectedExecutionException e) {
+                log.warn("Retry of partition {} was rejected by the executor: {}", task.getPartitionNumber(),
+                        e.getMessage());
+                task.reject(e);
+            }
+        });
+    }
+
+    // the caller of a nested call blocks a worker of the same executor, so a retry queued behind the blocked workers
+    // may never run. the worker that ran the failed attempt waits for the backoff and retries the partition itself
+    private void retryInline(PartitionTask<R> task, Runnable submitted, Duration backoff) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(backoff.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.cancel();
+            return;
+        }
+        if (cancelled) {
+            task.cancel();
+            return;
+        }
+        task.markSubmitted();
+        submitted.run();
+    }
+
+    /**
+     * @return the submitted partitions in submission order
+     */
+    List<PartitionTask<R>> getTasks() {
+        synchronized (this) {
+            return new ArrayList<>(tasks);
+        }
+    }
+
+    List<CompletableFuture<R>> getFutures() {
+        synchronized (this) {
+            return tasks.stream().map(PartitionTask::getFuture).toList();
+        }
+    }
+
+    /**
+     * @return a future of the results of all the partitions in submission order, completes exceptionally with the
+     * first failure of the call
+     */
+    CompletableFuture<List<R>> getResults() {
+        List<CompletableFuture<R>> futures = getFutures();
+        // the results are collected on the thread that completes the last partition, without another executor hop
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .handle((v, exception) -> {
+                    if (exception == null) {
+                        return futures.stream().map(CompletableFuture::join).toList();
+                    }
+                    // the failure of the last partition may not be recorded yet, its dependents run in reverse order
+                    Throwable firstFailure = failure.get();
+                    throw new CompletionException(firstFailure != null ? firstFailure : unwrap(exception));
+                });
+    }
+
+    /**
+     * @return true if the current thread is a worker of the executor, running a partition or a fork join task
+     */
+    static boolean isWorkerOf(Executor executor) {
+        if (executor instanceof ForkJoinPool && ForkJoinTask.getPool() == executor) {
+            return true;
+        }
+        return executor != null && CURRENT_EXECUTOR.get() == executor;
+    }
+
+    /**
+     * Runs the partitions no worker picked up yet on the current thread, if the call is nested.
+     * Partitions already picked up by a worker are skipped, as are the queued copies of the partitions run here.
+     */
+    void runPendingIfNested() {
+        if (!isWorkerOf(executor)) {
+            return;
+        }
+        List<PartitionTask<R>> pending;
+        synchronized (this) {
+            pending = new ArrayList<>(tasks);
+        }
+        log.debug("Nested call, running {} partitions on the calling worker", pending.size());
+        for (PartitionTask<R> task : pending) {
+            if (cancelled) {
+                return;
+            }
+            task.run();
+        }
+    }
+
+    private Runnable prioritized(Runnable task) {
+        int priority = options.getPriority();
+        return priority == PrioritizedRunnable.DEFAULT_PRIORITY ? task : new PrioritizedRunnable(task, priority);
+    }
+
+    private static Runnable runningOn(Executor executor, Runnable task) {
+        return () -> {
+            Executor previous = CURRENT_EXECUTOR.get();
+            CURRENT_EXECUTOR.set(executor);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT_EXECUTOR.remove();
+                } else {
+                    CURRENT_EXECUTOR.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Cancels the call - queued partitions are skipped, running partitions are interrupted and no further partitions
+     * are submitted.
+     */
+    void cancel() {
+        cancelled = true;
+        List<PartitionTask<R>> toCancel;
+        synchronized (this) {
+            toCancel = new ArrayList<>(tasks);
+        }
+        log.debug("Cancelling {} partitions", toCancel.size());
+        // stop the queued partitions first, completing the futures runs their dependents and is slow enough for the
+        // workers to keep starting the partitions ahead of the cancellation
+        toCancel.forEach(PartitionTask::preventStart);
+        toCancel.forEach(PartitionTask::cancel);
+    }
+
+    private static Throwable unwrap(Throwable exception) {
+        return exception instanceof CompletionException && exception.getCause() != null
+                ? exception.getCause() : exception;
+    }
+
+    private void onFailure(Throwable exception) {
+        Throwable cause = unwrap(exception);
+        if (cause instanceof CancellationException) {
+            return;
+        }
+        failure.compareAndSet(null, cause);
+        if (options.isFailFast() && !cancelled) {
+            log.warn("Partition failed, cancelling the remaining partitions: {}", cause.getMessage());
+            cancel();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.eldar.async.list;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Hedges the straggler partitions of a call, see {@link HedgingPolicy}.
+ * <p>
+ * The execution times of the completed partitions are the samples of the percentile. It's recomputed every time the
+ * number of samples doubles, so the cost stays logarithmic in the number of partitions. Once it's known, every
+ * running partition gets a single delayed check at its start time plus the percentile, which submits a hedge if the
+ * partition is still running.
+ */
+@Slf4j
+class PartitionHedger<R> {
+
+    private final HedgingPolicy policy;
+    private final PartitionMetrics metrics;
+    // submits a hedge to the executor of the call, with the context of the call
+    private final Consumer<PartitionTask<R>> submitter;
+    private final AtomicInteger remainingHedges;
+    private final Map<PartitionTask<R>, Long> startTimes = new ConcurrentHashMap<>();
+    private final Set<PartitionTask<R>> hedged = ConcurrentHashMap.newKeySet();
+    private final List<Long> samples = new ArrayList<>(); // guarded by this
+    private long thresholdNanos = -1; // guarded by this
+    private int thresholdSamples; // guarded by this
+
+    PartitionHedger(HedgingPolicy policy, int partitionCount, PartitionMetrics metrics,
+                    Consumer<PartitionTask<R>> submitter) {
+        this.policy = policy;
+        this.metrics = metrics;
+        this.submitter = submitter;
+        this.remainingHedges = new AtomicInteger(policy.maxHedges(partitionCount));
+    }
+
+    /**
+     * @return the task, watched for running longer than the percentile of its siblings
+     */
+    Runnable watching(PartitionTask<R> task) {
+        task.getFuture().whenComplete((result, exception) -> onComplete(task, exception));
+        return () -> {
+            onStart(task);
+            task.run();
+        };
+    }
+
+    private void onStart(PartitionTask<R> task) {
+        long started = System.nanoTime();
+        long threshold;
+        synchronized (this) {
+            startTimes.put(task, started);
+            threshold = thresholdNanos;
+        }
+        if (threshold >= 0) {
+            scheduleCheck(task, started, threshold);
+        }
+    }
+
+    private void onComplete(PartitionTask<R> task, Throwable exception) {
+        Long started = startTimes.remove(task);
+        if (started == null || exception != null) {
+            return;
+        }
+        long now = System.nanoTime();
+        List<Map.Entry<PartitionTask<R>, Long>> running = null;
+        long threshold;
+        synchronized (this) {
+            samples.add(now - started);
+            if (samples.size() < policy.getMinSamples() || samples.size() < 2 * thresholdSamples) {
+                return;
+            }
+            boolean isFirstThreshold = thresholdNanos < 0;
+            thresholdNanos = percentile();
+            thresholdSamples = samples.size();
+            threshold = thresholdNanos;
+            if (isFirstThreshold) { // the partitions that started so far weren't checked yet
+                running = new ArrayList<>(startTimes.entrySet());
+            }
+        }
+        if (running != null) {
+            log.debug("Hedging partitions running longer than {} ms", TimeUnit.NANOSECONDS.toMillis(threshold));
+            running.forEach(entry -> scheduleCheck(entry.getKey(), entry.getValue(), threshold));
+        }
+    }
+
+    // guarded by this
+    private long percentile() {
+        long[] sorted = samples.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(policy.getPercentile() * sorted.length) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    private void scheduleCheck(PartitionTask<R> task, long started, long thresholdNanos) {
+        long delay = Math.max(0, started + thresholdNanos - System.nanoTime());
+        CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS).execute(() -> check(task, started));
+    }
+
+    private void check(PartitionTask<R> task, long started) {
+        // skip partitions that completed, or restarted for a retry since the check was scheduled
+        Long currentStart = startTimes.get(task);
+        if (task.getFuture().isDone() || currentStart == null || currentStart != started || !hedged.add(task)) {
+            return;
+        }
+        if (remainingHedges.getAndUpdate(remaining -> Math.max(0, remaining - 1)) == 0) {
+            log.debug("Partition {} is a straggler, but the hedging cap was reached", task.getPartitionNumber());
+            return;
+        }
+        hedge(task);
+    }
+
+    private void hedge(PartitionTask<R> task) {
+        PartitionTask<R> hedge = task.duplicate();
+        // the first copy to succeed completes the partition, the other one is interrupted
+        hedge.getFuture().whenComplete((result, exception) -> {
+            if (exception == null && task.getFuture().complete(result)) {
+                log.debug("Hedge of partition {} completed first", task.getPartitionNumber());
+                task.cancel();
+            }
+        });
+        task.getFuture().whenComplete((result, exception) -> hedge.cancel());
+        log.debug("Partition {} is a straggler, submitting a hedge", task.getPartitionNumber());
+        metrics.recordHedge();
+        try {
+            submitter.accept(hedge);
+        } catch (RejectedExecutionException e) {
+            log.debug("Hedge of partition {} was rejected by the executor: {}", task.getPartitionNumber(),
+                    e.getMessage());
+            remainingHedges.incrementAndGet();
+        }
+    }
+}
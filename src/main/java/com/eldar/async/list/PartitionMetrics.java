@@ -0,0 +1,119 @@
+package com.eldar.async.list;
+
+import com.eldar.async.executor.ExecutorMetricsBinder;
+import com.eldar.async.executor.MicrometerExecutorMetricsBinder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer metrics of the partitioned calls, tagged by the name of the executor the call used.
+ * <ul>
+ *     <li>async.partition.count - the number of partitions of a call</li>
+ *     <li>async.partition.duration - the execution time of a partition, with a percentile histogram</li>
+ *     <li>async.partition.failures - the number of failed partitions</li>
+ *     <li>async.partition.retries - the number of retried partition attempts</li>
+ *     <li>async.partition.hedges - the number of hedges submitted for straggler partitions</li>
+ *     <li>async.partition.timeouts - the number of calls that timed out</li>
+ * </ul>
+ */
+class PartitionMetrics {
+
+    static final PartitionMetrics NOOP = new PartitionMetrics(null, null, null, null, null, null);
+
+    static final String EXECUTOR_TAG = "executor";
+
+    private final DistributionSummary partitionCount;
+    private final Timer partitionDuration;
+    private final Counter failures;
+    private final Counter retries;
+    private final Counter hedges;
+    private final Counter timeouts;
+
+    private PartitionMetrics(DistributionSummary partitionCount, Timer partitionDuration, Counter failures,
+                             Counter retries, Counter hedges, Counter timeouts) {
+        this.partitionCount = partitionCount;
+        this.partitionDuration = partitionDuration;
+        this.failures = failures;
+        this.retries = retries;
+        this.hedges = hedges;
+        this.timeouts = timeouts;
+    }
+
+    /**
+     * @param metricsBinder - the binder of the executor metrics, the metrics are registered in the same registry if
+     *                      it's a {@link MicrometerExecutorMetricsBinder}
+     * @param executorName  - the name of the executor the calls use
+     */
+    static PartitionMetrics of(ExecutorMetricsBinder metricsBinder, String executorName) {
+        if (!(metricsBinder instanceof MicrometerExecutorMetricsBinder micrometerMetricsBinder)) {
+            return NOOP;
+        }
+        MeterRegistry meterRegistry = micrometerMetricsBinder.getMeterRegistry();
+        return new PartitionMetrics(
+                DistributionSummary.builder("async.partition.count")
+                        .description("Number of partitions of a call")
+                        .tag(EXECUTOR_TAG, executorName)
+                        .register(meterRegistry),
+                Timer.builder("async.partition.duration")
+                        .description("Execution time of a partition")
+                        .tag(EXECUTOR_TAG, executorName)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry),
+                Counter.builder("async.partition.failures")
+                        .description("Number of failed partitions")
+                        .tag(EXECUTOR_TAG, executorName)
+                        .register(meterRegistry),
+                Counter.builder("async.partition.retries")
+                        .description("Number of failed partition attempts that were retried")
+                        .tag(EXECUTOR_TAG, executorName)
+                        .register(meterRegistry),
+                Counter.builder("async.partition.hedges")
+                        .description("Number of hedges submitted for straggler partitions")
+                        .tag(EXECUTOR_TAG, executorName)
+                        .register(meterRegistry),
+                Counter.builder("async.partition.timeouts")
+                        .description("Number of calls that did not complete within the timeout")
+                        .tag(EXECUTOR_TAG, executorName)
+                        .register(meterRegistry));
+    }
+
+    void recordPartitionCount(int count) {
+        if (partitionCount != null) {
+            partitionCount.record(count);
+        }
+    }
+
+    void recordPartitionDuration(long nanos) {
+        if (partitionDuration != null && nanos >= 0) {
+            partitionDuration.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void recordFailure() {
+        if (failures != null) {
+            failures.increment();
+        }
+    }
+
+    void recordRetry() {
+        if (retries != null) {
+            retries.increment();
+        }
+    }
+
+    void recordHedge() {
+        if (hedges != null) {
+            hedges.increment();
+        }
+    }
+
+    void recordTimeout() {
+        if (timeouts != null) {
+            timeouts.increment();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.eldar.async.list;
+
+import com.eldar.async.executor.PrioritizedRunnable;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+/**
+ * Per call options for the execution of the partitions.
+ */
+@Getter
+@ToString
+@Builder(toBuilder = true)
+public class PartitionOptions {
+
+    /**
+     * The default options - the call waits up to {@link AbstractAsyncExecutor#TASK_TIMEOUT} seconds, exceptions are
+     * only logged and the partitions are never cancelled.
+     */
+    public static final PartitionOptions DEFAULT = PartitionOptions.builder().build();
+
+    /**
+     * The max concurrency of calls that don't set one, see {@link #getMaxConcurrency()}.
+     */
+    public static final int USE_CONFIGURED_MAX_CONCURRENCY = 0;
+
+    /**
+     * Maximum time to wait for all the partitions of the call to complete.
+     */
+    @Builder.Default
+    private final Duration timeout = Duration.ofSeconds(AbstractAsyncExecutor.TASK_TIMEOUT);
+
+    /**
+     * If true, the exception of a failed partition is thrown to the caller, otherwise it is logged.
+     */
+    private final boolean toThrow;
+
+    /**
+     * If true, the first failed partition or an expired timeout cancels the call - queued partitions are cancelled,
+     * running partitions are interrupted and no further partitions are submitted, so the executor is freed right away.
+     */
+    private final boolean failFast;
+
+    /**
+     * Priority of the partitions of the call, higher is more urgent. Executors with a priority ordered queue pick up
+     * the partitions of latency sensitive calls ahead of the queued partitions of bulk calls, other executors ignore it.
+     */
+    @Builder.Default
+    private final int priority = PrioritizedRunnable.DEFAULT_PRIORITY;
+
+    /**
+     * Retry policy of the failed partitions, only the failed partitions are executed again. No retries by default.
+     */
+    @Builder.Default
+    private final RetryPolicy retryPolicy = RetryPolicy.NONE;
+
+    /**
+     * Hedging policy of the straggler partitions, only for idempotent functions. No hedging by default.
+     */
+    @Builder.Default
+    private final HedgingPolicy hedgingPolicy = HedgingPolicy.NONE;
+
+    /**
+     * Maximum number of partitions of the call running or queued in the executor at the same time, so a large call
+     * doesn't take every thread of a shared executor. The next partition is submitted when one completes. 0 uses the
+     * "async.task.execution.partition.max-concurrency" property, which is no limit by default. Hedges are not limited.
+     */
+    @Builder.Default
+    private final int maxConcurrency = USE_CONFIGURED_MAX_CONCURRENCY;
+
+    static PartitionOptions of(boolean isToThrow) {
+        return isToThrow ? DEFAULT.toBuilder().toThrow(true).build() : DEFAULT;
+    }
+}
@@ -0,0 +1,51 @@
+package com.eldar.async.list;
+
+import java.time.Duration;
+
+/**
+ * The outcome of a single partition of a call, see {@link PartitionedResult}.
+ *
+ * @param partitionNumber - the number of the partition, starting at 0
+ * @param fromIndex       - the index of the first item of the partition, inclusive
+ * @param toIndex         - the index of the last item of the partition, exclusive
+ * @param status          - how the partition ended
+ * @param result          - the result of the partition if it succeeded, null otherwise
+ * @param exception       - the exception of the partition if it failed, null otherwise
+ * @param queueWait       - the time the last attempt waited in the queue of the executor
+ * @param executionTime   - the execution time of the last attempt, zero if it didn't complete
+ * @param attempts        - the number of attempts that started, more than 1 if the partition was retried
+ * @param <R>             - the return type of the function
+ */
+public record PartitionOutcome<R>(int partitionNumber, int fromIndex, int toIndex, Status status, R result,
+                                  Throwable exception, Duration queueWait, Duration executionTime, int attempts) {
+
+    public enum Status {
+        /**
+         * The partition completed successfully.
+         */
+        SUCCEEDED,
+        /**
+         * The partition threw an exception, or was rejected by the executor.
+         */
+        FAILED,
+        /**
+         * The partition was cancelled or not submitted, because the call was cancelled.
+         */
+        CANCELLED,
+        /**
+         * The partition did not complete within the timeout of the call, it may still be running.
+         */
+        TIMED_OUT
+    }
+
+    public boolean isSucceeded() {
+        return status == Status.SUCCEEDED;
+    }
+
+    /**
+     * @return the number of items in the partition
+     */
+    public int size() {
+        return toIndex - fromIndex;
+    }
+}
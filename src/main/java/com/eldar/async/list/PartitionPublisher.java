@@ -0,0 +1,184 @@
+package com.eldar.async.list;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Publishes the results of the partitions of a call in completion order, to a single subscriber.
+ * <p>
+ * Partitions are submitted on demand - every requested item allows one more partition to be submitted, so the
+ * results are never buffered beyond the demand of the subscriber. A partition that returns null is not published,
+ * and the demand it used is passed on to the next partition. A failed partition cancels the remaining partitions and
+ * the failure is signalled with {@code onError}.
+ */
+@Slf4j
+class PartitionPublisher<R> implements Flow.Publisher<R> {
+
+    private final int partitionCount;
+    private final IntFunction<PartitionTask<R>> taskFactory;
+    private final PartitionExecution<R> execution;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * @param partitionCount - the number of partitions of the call
+     * @param taskFactory    - creates the task of a partition by its number
+     * @param execution      - the execution tracking the submitted partitions
+     * @param executor       - the executor to submit the partitions to
+     */
+    PartitionPublisher(int partitionCount, IntFunction<PartitionTask<R>> taskFactory, PartitionExecution<R> execution,
+                       Executor executor) {
+        this.partitionCount = partitionCount;
+        this.taskFactory = taskFactory;
+        this.execution = execution;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber must not be null");
+        }
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("The results of a call can only be subscribed once"));
+            return;
+        }
+        PartitionSubscription subscription = new PartitionSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        if (partitionCount == 0) {
+            subscription.drain();
+        }
+    }
+
+    private final class PartitionSubscription implements Flow.Subscription {
+
+        // a completed partition that returned null, counted but not published
+        private static final Object NO_RESULT = new Object();
+
+        private final Flow.Subscriber<? super R> subscriber;
+        private final Queue<Object> signals = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private long requested; // guarded by this, demand not used to submit partitions yet
+        private int submitted; // guarded by this
+        private int completed; // accessed by the draining thread only
+        private volatile boolean cancelled;
+        private volatile boolean terminated;
+
+        private PartitionSubscription(Flow.Subscriber<? super R> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                signals.offer(new Failure(new IllegalArgumentException("Requested items must be positive: " + n)));
+                drain();
+                return;
+            }
+            synchronized (this) {
+                requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+            }
+            submitNext();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            execution.cancel();
+        }
+
+        private void submitNext() {
+            while (true) {
+                int partitionNumber;
+                synchronized (this) {
+                    if (cancelled || terminated || requested == 0 || submitted == partitionCount) {
+                        return;
+                    }
+                    requested--;
+                    partitionNumber = submitted++;
+                }
+                PartitionTask<R> task = taskFactory.apply(partitionNumber);
+                task.getFuture().whenComplete(this::onPartitionDone);
+                try {
+                    if (!execution.submit(task, executor)) {
+                        return;
+                    }
+                } catch (RejectedExecutionException e) {
+                    return; // the rejection completes the partition exceptionally
+                }
+            }
+        }
+
+        private void onPartitionDone(R result, Throwable exception) {
+            if (exception != null) {
+                Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+                        ? exception.getCause() : exception;
+                // partitions are only cancelled by the subscriber or by the failure of another partition
+                if (!(cause instanceof CancellationException)) {
+                    signals.offer(new Failure(cause));
+                }
+            } else if (result == null) {
+                signals.offer(NO_RESULT);
+                synchronized (this) {
+                    requested++;
+                }
+                submitNext();
+            } else {
+                signals.offer(result);
+            }
+            drain();
+        }
+
+        // signals the subscriber serially, by one thread at a time
+        @SuppressWarnings("unchecked")
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                Object signal;
+                while ((signal = signals.poll()) != null) {
+                    if (terminated || cancelled) {
+                        continue;
+                    }
+                    if (signal instanceof Failure failure) {
+                        terminated = true;
+                        execution.cancel();
+                        subscriber.onError(failure.cause());
+                        continue;
+                    }
+                    completed++;
+                    if (signal != NO_RESULT) {
+                        subscriber.onNext((R) signal);
+                    }
+                }
+                if (!terminated && !cancelled && completed == partitionCount) {
+                    terminated = true;
+                    subscriber.onComplete();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+    }
+
+    private record Failure(Throwable cause) {
+    }
+}
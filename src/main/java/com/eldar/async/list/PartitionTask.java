@@ -0,0 +1,190 @@
+package com.eldar.async.list;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * A single partition submitted to the executor.
+ * <p>
+ * Unlike {@link CompletableFuture#supplyAsync(Supplier, java.util.concurrent.Executor)}, the task can be cancelled
+ * while it's queued, in which case it's skipped once the executor picks it up, and interrupted while it's running.
+ * A failed attempt can be retried according to a {@link RetryPolicy}, the future completes with the last attempt.
+ */
+class PartitionTask<R> implements Runnable {
+
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int CANCELLED = 3;
+
+    /**
+     * The attempt number passed to the work of a hedge, see {@link #duplicate()}.
+     */
+    static final int HEDGE_ATTEMPT = 0;
+
+    private final int partitionNumber;
+    private final IntFunction<R> work;
+    private final RetryPolicy retryPolicy;
+    private final CompletableFuture<R> future = new CompletableFuture<>();
+    private final AtomicInteger state = new AtomicInteger(NEW);
+    private Thread runner; // guarded by this
+    private boolean interrupted; // guarded by this
+    // only accessed by the thread running the attempt, the resubmission to the executor publishes it to the next one
+    private int attempt = 1;
+    private volatile Consumer<Duration> retryScheduler;
+    // timings of the last attempt, written before the future completes so they are visible once it's done
+    private volatile long submittedNanos;
+    private volatile long queueWaitNanos;
+    private volatile long executionNanos;
+    private volatile int startedAttempts;
+
+    PartitionTask(int partitionNumber, Supplier<R> work) {
+        this(partitionNumber, attempt -> work.get(), RetryPolicy.NONE);
+    }
+
+    /**
+     * @param work        - executes an attempt of the partition, gets the number of the attempt starting at 1
+     * @param retryPolicy - decides if and when a failed attempt is executed again
+     */
+    PartitionTask(int partitionNumber, IntFunction<R> work, RetryPolicy retryPolicy) {
+        this.partitionNumber = partitionNumber;
+        this.work = work;
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * Sets how a failed attempt is resubmitted, it gets the backoff to wait before the next attempt.
+     * Failed attempts are not retried until it's set.
+     */
+    void setRetryScheduler(Consumer<Duration> retryScheduler) {
+        this.retryScheduler = retryScheduler;
+    }
+
+    /**
+     * @return a new task running the same work, to hedge this one, it's never retried
+     */
+    PartitionTask<R> duplicate() {
+        return new PartitionTask<>(partitionNumber, attempt -> work.apply(HEDGE_ATTEMPT), RetryPolicy.NONE);
+    }
+
+    /**
+     * Records that the task was handed to the executor, the queue wait of the next attempt starts here.
+     */
+    void markSubmitted() {
+        submittedNanos = System.nanoTime();
+    }
+
+    int getPartitionNumber() {
+        return partitionNumber;
+    }
+
+    /**
+     * @return the number of attempts started so far
+     */
+    int getAttempts() {
+        return startedAttempts;
+    }
+
+    /**
+     * @return the time the last attempt waited between its submission and its start, 0 if it didn't start
+     */
+    long getQueueWaitNanos() {
+        return queueWaitNanos;
+    }
+
+    /**
+     * @return the execution time of the last attempt, 0 if it didn't complete
+     */
+    long getExecutionNanos() {
+        return executionNanos;
+    }
+
+    CompletableFuture<R> getFuture() {
+        return future;
+    }
+
+    @Override
+    public void run() {
+        if (!state.compareAndSet(NEW, RUNNING)) {
+            return; // cancelled while queued
+        }
+        synchronized (this) {
+            if (future.isDone()) { // cancelled or completed by a hedge before the runner was set
+                state.set(DONE);
+                return;
+            }
+            runner = Thread.currentThread();
+        }
+        long started = System.nanoTime();
+        startedAttempts = attempt;
+        queueWaitNanos = submittedNanos > 0 ? started - submittedNanos : 0;
+        executionNanos = 0;
+        Duration retryBackoff = null;
+        try {
+            R result = work.apply(attempt);
+            executionNanos = System.nanoTime() - started;
+            future.complete(result);
+        } catch (Throwable e) {
+            executionNanos = System.nanoTime() - started;
+            Consumer<Duration> scheduler = retryScheduler;
+            if (scheduler != null && !future.isDone() && retryPolicy.shouldRetry(e, attempt)) {
+                retryBackoff = retryPolicy.backoff(attempt);
+                attempt++;
+            } else {
+                future.completeExceptionally(e);
+            }
+        } finally {
+            synchronized (this) {
+                runner = null;
+                state.set(DONE);
+                if (interrupted) {
+                    interrupted = false;
+                    Thread.interrupted(); // don't leak the interrupt of the cancellation to the next task of the worker
+                }
+            }
+        }
+        // a cancellation after this point finds the task queued, or skips it once the retry runs
+        if (retryBackoff != null && !future.isDone() && state.compareAndSet(DONE, NEW)) {
+            retryScheduler.accept(retryBackoff);
+        }
+    }
+
+    /**
+     * Fails the partition that was rejected by the executor.
+     */
+    void reject(RejectedExecutionException exception) {
+        if (state.compareAndSet(NEW, CANCELLED)) {
+            future.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Marks a queued partition as cancelled so no worker starts it, without completing its future yet.
+     */
+    void preventStart() {
+        state.compareAndSet(NEW, CANCELLED);
+    }
+
+    /**
+     * Cancels the partition, a queued partition will not run and a running partition is interrupted.
+     * A partition whose future was already completed by a hedge is interrupted as well.
+     */
+    void cancel() {
+        if (state.compareAndSet(NEW, CANCELLED)) {
+            future.cancel(false);
+            return;
+        }
+        future.cancel(false);
+        synchronized (this) {
+            if (runner != null) {
+                interrupted = true;
+                runner.interrupt();
+            }
+        }
+    }
+}
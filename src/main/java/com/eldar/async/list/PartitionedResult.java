@@ -0,0 +1,99 @@
+package com.eldar.async.list;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The outcome of every partition of a call, in partition order, see
+ * {@link AsyncListExecutor#withPartitionedResult(List, java.util.function.Function, int,
+ * java.util.concurrent.Executor, PartitionOptions)}.
+ * <p>
+ * Unlike the other calls, failures and an expired timeout are reported per partition instead of being logged or
+ * thrown, so the caller can tell which items were processed and reprocess only the ranges that were not.
+ *
+ * @param <R> - the return type of the function
+ */
+public final class PartitionedResult<R> {
+
+    private static final PartitionedResult<?> EMPTY = new PartitionedResult<>(Collections.emptyList(), false);
+
+    private final List<PartitionOutcome<R>> outcomes;
+    private final boolean timedOut;
+
+    PartitionedResult(List<PartitionOutcome<R>> outcomes, boolean timedOut) {
+        this.outcomes = Collections.unmodifiableList(outcomes);
+        this.timedOut = timedOut;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <R> PartitionedResult<R> empty() {
+        return (PartitionedResult<R>) EMPTY;
+    }
+
+    /**
+     * @return the outcome of every partition, in partition order
+     */
+    public List<PartitionOutcome<R>> getOutcomes() {
+        return outcomes;
+    }
+
+    /**
+     * @return true if the call didn't complete within its timeout
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * @return true if all the partitions succeeded
+     */
+    public boolean isSuccessful() {
+        return outcomes.stream().allMatch(PartitionOutcome::isSucceeded);
+    }
+
+    /**
+     * @return the results of the partitions that succeeded, in partition order
+     */
+    public List<R> getResults() {
+        List<R> results = new ArrayList<>(outcomes.size());
+        for (PartitionOutcome<R> outcome : outcomes) {
+            if (outcome.isSucceeded()) {
+                results.add(outcome.result());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return the outcomes of the partitions that failed, were cancelled or timed out, in partition order
+     */
+    public List<PartitionOutcome<R>> getUnsuccessful() {
+        return outcomes.stream().filter(outcome -> !outcome.isSucceeded()).toList();
+    }
+
+    /**
+     * @param items - the items of the call
+     * @return views of the items of the partitions that did not succeed, to reprocess them
+     */
+    public <T> List<List<T>> getUnsuccessfulItems(List<T> items) {
+        return getUnsuccessful().stream()
+                .map(outcome -> items.subList(outcome.fromIndex(), outcome.toIndex()))
+                .toList();
+    }
+
+    /**
+     * @return the outcome of the partition with the longest execution time, empty if there are no partitions
+     */
+    public Optional<PartitionOutcome<R>> getSlowest() {
+        return outcomes.stream().max(Comparator.comparing(PartitionOutcome::executionTime));
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionedResult{partitions=" + outcomes.size() + ", unsuccessful=" + getUnsuccessful().size()
+                + ", timedOut=" + timedOut + "}";
+    }
+}
@@ -0,0 +1,107 @@
+package com.eldar.async.list;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Retry policy of the partitions of a call, see {@link PartitionOptions#getRetryPolicy()}.
+ * <p>
+ * Only the failed partition is retried. It is resubmitted to the executor once the backoff elapses, so no worker
+ * thread is held while waiting. The backoff grows exponentially with every attempt and is randomized by the jitter,
+ * so partitions that failed together, e.g. on a deadlock, don't retry at the same time. Retries count towards the
+ * timeout of the call.
+ */
+@Getter
+@ToString
+@Builder(toBuilder = true)
+public class RetryPolicy {
+
+    /**
+     * No retries, a failed partition fails right away.
+     */
+    public static final RetryPolicy NONE = RetryPolicy.builder().build();
+
+    /**
+     * Maximum number of times a partition is executed, including the first attempt. 1 means no retries.
+     */
+    @Builder.Default
+    private final int maxAttempts = 1;
+
+    /**
+     * Backoff before the first retry.
+     */
+    @Builder.Default
+    private final Duration initialBackoff = Duration.ofMillis(100);
+
+    /**
+     * Upper bound of the backoff.
+     */
+    @Builder.Default
+    private final Duration maxBackoff = Duration.ofSeconds(10);
+
+    /**
+     * Factor the backoff is multiplied by after every attempt, at least 1.
+     */
+    @Builder.Default
+    private final double multiplier = 2;
+
+    /**
+     * Fraction of the backoff that is randomized, between 0 (fixed backoff) and 1 (anywhere between 0 and the backoff).
+     */
+    @Builder.Default
+    private final double jitter = 0.5;
+
+    /**
+     * Decides which exceptions of the partition function are retried, all of them by default.
+     */
+    @ToString.Exclude
+    @Builder.Default
+    private final Predicate<Throwable> retryOn = exception -> true;
+
+    boolean isEnabled() {
+        return maxAttempts > 1;
+    }
+
+    /**
+     * @param exception - the exception the attempt failed with
+     * @param attempt   - the number of the failed attempt, starting at 1
+     * @return true if the partition should be executed again
+     */
+    boolean shouldRetry(Throwable exception, int attempt) {
+        return attempt < maxAttempts && !(exception instanceof InterruptedException) && retryOn.test(exception);
+    }
+
+    /**
+     * @param attempt - the number of the failed attempt, starting at 1
+     * @return the time to wait before the next attempt
+     */
+    Duration backoff(int attempt) {
+        double backoffNanos = Math.min(initialBackoff.toNanos() * Math.pow(multiplier, attempt - 1d),
+                maxBackoff.toNanos());
+        double jitterNanos = backoffNanos * jitter * ThreadLocalRandom.current().nextDouble();
+        return Duration.ofNanos((long) (backoffNanos - jitterNanos));
+    }
+
+    void validate() {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Max attempts must be greater than 0");
+        }
+        if (initialBackoff == null || initialBackoff.isNegative() || maxBackoff == null || maxBackoff.isNegative()) {
+            throw new IllegalArgumentException("Backoff must not be negative");
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Backoff multiplier must not be less than 1");
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("Jitter must be between 0 and 1");
+        }
+        if (retryOn == null) {
+            throw new IllegalArgumentException("Retry predicate must not be null");
+        }
+    }
+}
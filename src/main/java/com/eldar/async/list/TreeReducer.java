@@ -0,0 +1,121 @@
+package com.eldar.async.list;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BinaryOperator;
+
+/**
+ * Merges partition results as they complete, instead of combining all of them once the last partition is done.
+ * <p>
+ * The partitions are the leaves of a balanced binary tree over their indexes, and a node merges the results of its
+ * two halves once both are done. Only adjacent ranges are merged, the left one first, so the combiner must be
+ * associative, it doesn't need to be commutative. Merges run in parallel with the partitions that are still
+ * executing, and the reduction is O(log partitions) deep.
+ * <p>
+ * A merge runs on the thread that completed the second half, usually a worker finishing a partition of the call, so
+ * it's covered by the slot of that partition and never queues behind the partitions or waits for the executor.
+ */
+@Slf4j
+class TreeReducer<R> {
+
+    private final BinaryOperator<R> combiner;
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+    // the node every partition is merged into, null for the root, and whether the partition is its left half
+    private final List<Node> leafParents;
+    private final BitSet leftLeaves;
+
+    TreeReducer(int partitions, R identity, BinaryOperator<R> combiner) {
+        this.combiner = combiner;
+        this.leafParents = new ArrayList<>(partitions);
+        this.leftLeaves = new BitSet(partitions);
+        if (partitions == 0) {
+            result.complete(identity);
+        } else {
+            build(0, partitions, null, false);
+        }
+    }
+
+    CompletableFuture<R> getResult() {
+        return result;
+    }
+
+    /**
+     * @param partitionNumber - the index of the partition in submission order
+     * @param value           - the result of the partition
+     */
+    void accept(int partitionNumber, R value) {
+        deliver(leafParents.get(partitionNumber), leftLeaves.get(partitionNumber), value);
+    }
+
+    /**
+     * Fails the reduction, the results of the other partitions are not merged any further.
+     */
+    void fail(Throwable exception) {
+        result.completeExceptionally(exception instanceof CompletionException && exception.getCause() != null
+                ? exception.getCause() : exception);
+    }
+
+    // the leaves are added in index order, as the tree is built depth first from the left
+    private void build(int from, int to, Node parent, boolean left) {
+        if (to - from == 1) {
+            leafParents.add(parent);
+            leftLeaves.set(from, left);
+            return;
+        }
+        Node node = new Node(parent, left);
+        int middle = (from + to) >>> 1;
+        build(from, middle, node, true);
+        build(middle, to, node, false);
+    }
+
+    private void deliver(Node node, boolean left, R value) {
+        if (node == null) {
+            result.complete(value);
+            return;
+        }
+        if (result.isDone()) { // failed
+            return;
+        }
+        R leftValue;
+        R rightValue;
+        synchronized (node) {
+            if (left) {
+                node.leftValue = value;
+            } else {
+                node.rightValue = value;
+            }
+            if (++node.done < 2) {
+                return;
+            }
+            leftValue = node.leftValue;
+            rightValue = node.rightValue;
+        }
+        R merged;
+        try {
+            merged = combiner.apply(leftValue, rightValue);
+        } catch (RuntimeException e) {
+            log.warn("Exception occurred while combining results: {}", e.getMessage());
+            result.completeExceptionally(e);
+            return;
+        }
+        deliver(node.parent, node.left, merged);
+    }
+
+    private class Node {
+        private final Node parent;
+        private final boolean left;
+        private R leftValue; // guarded by this
+        private R rightValue; // guarded by this
+        private int done; // halves delivered, guarded by this
+
+        Node(Node parent, boolean left) {
+            this.parent = parent;
+            this.left = left;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.eldar.async.list;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToLongFunction;
+
+/**
+ * Builds partitions of roughly equal total weight from items of uneven cost, see
+ * {@link AsyncListExecutor#withWeightedPartition(List, ToLongFunction, java.util.function.Consumer, int, int)}.
+ * <p>
+ * Uses the longest processing time first heuristic: the items are taken from the heaviest to the lightest, and every
+ * item goes to the partition with the lowest total weight so far that isn't full. The heaviest partition is at most
+ * 4/3 of the optimum, so the time of a call tracks the total work divided by the threads instead of the heaviest
+ * slice of the list.
+ */
+final class WeightedPartitioner {
+
+    private WeightedPartitioner() {
+    }
+
+    /**
+     * @param items            - the items to partition
+     * @param weigher          - the weight of an item, e.g. its size in bytes, must not be negative
+     * @param partitionCount   - the number of partitions, more if the items don't fit in them
+     * @param maxPartitionSize - the maximum number of items in a partition
+     * @return the non-empty partitions from the heaviest to the lightest, the items of every partition keep their
+     * order in the list
+     */
+    static <T> List<List<T>> partition(List<T> items, ToLongFunction<T> weigher, int partitionCount,
+                                       int maxPartitionSize) {
+        int itemCount = items.size();
+        long[] weights = new long[itemCount];
+        List<Integer> byWeight = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            weights[i] = weigher.applyAsLong(items.get(i));
+            if (weights[i] < 0) {
+                throw new IllegalArgumentException("Weight of item " + i + " must not be negative");
+            }
+            byWeight.add(i);
+        }
+        byWeight.sort(Comparator.comparingLong((Integer i) -> weights[i]).reversed());
+
+        int binCount = Math.max(Math.min(partitionCount, itemCount),
+                (itemCount - 1) / maxPartitionSize + 1);
+        PriorityQueue<Bin> lightest = new PriorityQueue<>(binCount);
+        List<Bin> bins = new ArrayList<>(binCount);
+        for (int i = 0; i < binCount; i++) {
+            Bin bin = new Bin(i);
+            bins.add(bin);
+            lightest.add(bin);
+        }
+        for (int index : byWeight) {
+            Bin bin = lightest.poll();
+            bin.add(index, weights[index]);
+            if (bin.indexes.size() < maxPartitionSize) {
+                lightest.add(bin);
+            }
+        }
+
+        bins.sort(Comparator.comparingLong((Bin bin) -> bin.weight).reversed());
+        List<List<T>> partitions = new ArrayList<>(binCount);
+        for (Bin bin : bins) {
+            if (bin.indexes.isEmpty()) {
+                continue;
+            }
+            bin.indexes.sort(null);
+            List<T> partition = new ArrayList<>(bin.indexes.size());
+            bin.indexes.forEach(index -> partition.add(items.get(index)));
+            partitions.add(partition);
+        }
+        return partitions;
+    }
+
+    // ordered by the total weight, ties by creation order so equal items are spread round robin
+    private static class Bin implements Comparable<Bin> {
+        private final int number;
+        private final List<Integer> indexes = new ArrayList<>();
+        private long weight;
+
+        Bin(int number) {
+            this.number = number;
+        }
+
+        void add(int index, long itemWeight) {
+            indexes.add(index);
+            weight += itemWeight;
+        }
+
+        @Override
+        public int compareTo(Bin other) {
+            int byWeight = Long.compare(weight, other.weight);
+            return byWeight != 0 ? byWeight : Integer.compare(number, other.number);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.eldar.async;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContextSnapshotTest {
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Capturing an empty context should return the shared empty snapshot")
+    void testCapture_EmptyContext() {
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+
+        assertSame(ContextSnapshot.EMPTY, snapshot);
+        assertTrue(snapshot.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A task should run with the snapshot on another thread")
+    void testWrap_PropagatesContext() throws Exception {
+        MDC.put("requestId", "42");
+        Authentication authentication = new TestingAuthenticationToken("user", "password");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        AtomicReference<String> requestId = new AtomicReference<>();
+        AtomicReference<Authentication> taskAuthentication = new AtomicReference<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Runnable task = ContextSnapshot.capture().wrap(() -> {
+            requestId.set(MDC.get("requestId"));
+            taskAuthentication.set(SecurityContextHolder.getContext().getAuthentication());
+        });
+        executor.submit(task).get(1, TimeUnit.SECONDS);
+
+        assertEquals("42", requestId.get());
+        assertSame(authentication, taskAuthentication.get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Applying a snapshot should restore the previous context of the thread once closed")
+    void testApply_RestoresPreviousContext() {
+        MDC.put("requestId", "42");
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user", "password"));
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+        MDC.put("requestId", "worker");
+        Authentication workerAuthentication = new TestingAuthenticationToken("worker", "password");
+        SecurityContextHolder.getContext().setAuthentication(workerAuthentication);
+
+        try (ContextSnapshot.Scope ignored = snapshot.apply()) {
+            assertEquals("42", MDC.get("requestId"));
+            assertEquals("user", SecurityContextHolder.getContext().getAuthentication().getName());
+        }
+
+        assertEquals("worker", MDC.get("requestId"));
+        assertSame(workerAuthentication, SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("A task that already runs with a snapshot should not be wrapped again")
+    void testWrap_AlreadyWrapped() {
+        MDC.put("requestId", "42");
+        Runnable task = ContextSnapshot.capture().wrap(() -> {
+        });
+
+        assertSame(task, ThreadUtil.withContext(task));
+    }
+
+    @Test
+    @DisplayName("An empty snapshot should not wrap the task, a task marked as captured should not get the context of the submitting thread")
+    void testWrap_EmptyAndMarkedCaptured() throws Exception {
+        Runnable task = () -> {
+        };
+        assertSame(task, ContextSnapshot.EMPTY.wrap(task));
+
+        AtomicReference<String> requestId = new AtomicReference<>("none");
+        Runnable marked = ContextSnapshot.markCaptured(() -> requestId.set(MDC.get("requestId")));
+        MDC.put("requestId", "42");
+        Runnable decorated = ThreadUtil.withContext(marked);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.submit(decorated).get(1, TimeUnit.SECONDS);
+
+        assertSame(marked, decorated);
+        assertNull(requestId.get());
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,148 @@
+package com.eldar.async.batch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncBatcherTest {
+
+    private ExecutorService executor;
+
+    private List<List<Integer>> batches;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+        batches = new CopyOnWriteArrayList<>();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("A full batch should be consumed without waiting for the linger time")
+    void testFullBatch() throws Exception {
+        AsyncBatcher<Integer> batcher = new AsyncBatcher<>(batches::add, 5, Duration.ofSeconds(30), executor);
+
+        List<CompletableFuture<Void>> futures = IntStream.range(0, 10).mapToObj(batcher::submit).toList();
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertEquals(2, batches.size());
+        batches.forEach(batch -> assertEquals(5, batch.size()));
+        assertEquals(0, batcher.getBufferedCount());
+    }
+
+    @Test
+    @DisplayName("A partial batch should be consumed once the linger time elapsed")
+    void testLinger() throws Exception {
+        AsyncBatcher<Integer> batcher = new AsyncBatcher<>(batches::add, 100, Duration.ofMillis(50), executor);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = IntStream.range(0, 3).mapToObj(batcher::submit).toList();
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        assertEquals(List.of(List.of(0, 1, 2)), batches);
+    }
+
+    @Test
+    @DisplayName("Items submitted by many threads should be consumed exactly once, in batches of at most the max size")
+    void testConcurrentSubmissions() throws Exception {
+        AsyncBatcher<Integer> batcher = new AsyncBatcher<>(batches::add, 50, Duration.ofMillis(20), executor);
+        ExecutorService producers = Executors.newFixedThreadPool(8);
+        List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+
+        for (int thread = 0; thread < 8; thread++) {
+            int first = thread * 1000;
+            producers.execute(() -> IntStream.range(first, first + 1000)
+                    .forEach(item -> futures.add(batcher.submit(item))));
+        }
+        producers.shutdown();
+        assertTrue(producers.awaitTermination(5, TimeUnit.SECONDS));
+
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        List<Integer> consumed = new ArrayList<>();
+        batches.forEach(consumed::addAll);
+        assertEquals(IntStream.range(0, 8000).boxed().toList(), consumed.stream().sorted().toList());
+        batches.forEach(batch -> assertTrue(batch.size() <= 50));
+    }
+
+    @Test
+    @DisplayName("A fast producer on a bounded executor should dispatch only full batches, without rejections")
+    void testBoundedExecutor() throws Exception {
+        ThreadPoolExecutor bounded = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(20));
+        try {
+            AsyncBatcher<Integer> batcher = new AsyncBatcher<>(batch -> {
+                sleep(5);
+                batches.add(batch);
+            }, 50, Duration.ofSeconds(30), bounded);
+
+            List<CompletableFuture<Void>> futures = IntStream.range(0, 500).mapToObj(batcher::submit).toList();
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            assertEquals(10, batches.size());
+            batches.forEach(batch -> assertEquals(50, batch.size()));
+        } finally {
+            bounded.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("The futures of a failed batch should complete exceptionally")
+    void testFailedBatch() {
+        AsyncBatcher<Integer> batcher = new AsyncBatcher<>(batch -> {
+            throw new IllegalStateException("insert failed");
+        }, 2, Duration.ofSeconds(30), executor);
+
+        CompletableFuture<Void> first = batcher.submit(1);
+        CompletableFuture<Void> second = batcher.submit(2);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Closing should flush the buffered items and reject further items")
+    void testClose() throws Exception {
+        AsyncBatcher<Integer> batcher = new AsyncBatcher<>(batches::add, 100, Duration.ofSeconds(30), executor);
+        CompletableFuture<Void> future = batcher.submit(1);
+
+        batcher.close();
+
+        future.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(List.of(1)), batches);
+        assertTrue(batcher.submit(2).isCompletedExceptionally());
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncBatcher<Integer>(batches::add, 0, Duration.ofSeconds(1), executor));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AsyncBatcher<Integer>(batches::add, 10, Duration.ZERO, executor));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
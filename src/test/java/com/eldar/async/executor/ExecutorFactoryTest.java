@@ -0,0 +1,268 @@
+package com.eldar.async.executor;
+
+import com.eldar.async.AsyncProperties;
+import com.eldar.async.decorator.TaskDecoratorResolver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.*;
+
+class ExecutorFactoryTest {
+
+    private AsyncProperties asyncProperties;
+
+    private ExecutorFactory executorFactory;
+
+    @Mock
+    private TaskDecoratorResolver taskDecoratorResolver;
+
+    @Mock
+    private TaskDecorator taskDecorator;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(taskDecoratorResolver.getTaskDecorator()).thenReturn(taskDecorator);
+        when(taskDecorator.decorate(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        asyncProperties = new AsyncProperties();
+        executorFactory = new ExecutorFactory(asyncProperties, taskDecoratorResolver);
+    }
+
+    @Test
+    @DisplayName("Default executor type should create a thread pool")
+    void testNewTaskExecutor_ThreadPool() {
+        Executor executor = executorFactory.newExecutor();
+
+        assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        ((ThreadPoolTaskExecutor) executor).shutdown();
+    }
+
+    @Test
+    @DisplayName("Virtual executor type should create a thread per task executor with the task decorator applied")
+    void testNewTaskExecutor_VirtualThreads() throws InterruptedException {
+        asyncProperties.setType(AsyncProperties.ExecutorType.VIRTUAL);
+        asyncProperties.getVirtualThreads().setConcurrencyLimit(4);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Executor executor = executorFactory.newExecutor();
+        executor.execute(latch::countDown);
+
+        assertInstanceOf(SimpleAsyncTaskExecutor.class, executor);
+        assertEquals(4, ((SimpleAsyncTaskExecutor) executor).getConcurrencyLimit());
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        verify(taskDecorator).decorate(any());
+    }
+
+    @Test
+    @DisplayName("Without virtual threads, the platform thread per task fallback should be bounded by the max pool size")
+    void testNewTaskExecutor_VirtualThreadsFallbackBounded() {
+        assumeTrue(Runtime.version().feature() < 21, "virtual threads are supported");
+        asyncProperties.setType(AsyncProperties.ExecutorType.VIRTUAL);
+        asyncProperties.getPool().setMaxCoreSize(8);
+
+        Executor executor = executorFactory.newExecutor();
+
+        assertEquals(8, ((SimpleAsyncTaskExecutor) executor).getConcurrencyLimit());
+    }
+
+    @Test
+    @DisplayName("The task executor should always be a thread pool, whatever the executor type")
+    void testNewTaskExecutor_AlwaysThreadPool() {
+        asyncProperties.setType(AsyncProperties.ExecutorType.FORK_JOIN);
+
+        ThreadPoolTaskExecutor executor = executorFactory.newTaskExecutor();
+
+        assertNotNull(executor.getThreadPoolExecutor());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Fork join executor type should create a fork join pool with the task decorator applied")
+    void testNewTaskExecutor_ForkJoin() throws InterruptedException {
+        asyncProperties.setType(AsyncProperties.ExecutorType.FORK_JOIN);
+        asyncProperties.getForkJoin().setParallelism(2);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        Executor executor = executorFactory.newExecutor();
+        executor.execute(latch::countDown);
+
+        assertInstanceOf(ContextAwareForkJoinPool.class, executor);
+        assertEquals(2, ((ForkJoinPool) executor).getParallelism());
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        verify(taskDecorator).decorate(any());
+        ((ForkJoinPool) executor).shutdown();
+    }
+
+    @Test
+    @DisplayName("Saturation policy should set the rejected execution handler of the thread pool")
+    void testNewThreadPoolExecutor_SaturationPolicy() {
+        asyncProperties.getPool().setSaturationPolicy(AsyncProperties.SaturationPolicy.CALLER_RUNS);
+        ThreadPoolTaskExecutor callerRuns = executorFactory.newThreadPoolExecutor(asyncProperties);
+        asyncProperties.getPool().setSaturationPolicy(AsyncProperties.SaturationPolicy.BLOCK);
+        ThreadPoolTaskExecutor block = executorFactory.newThreadPoolExecutor(asyncProperties);
+
+        assertInstanceOf(ThreadPoolExecutor.CallerRunsPolicy.class,
+                callerRuns.getThreadPoolExecutor().getRejectedExecutionHandler());
+        assertInstanceOf(BlockingRejectedExecutionHandler.class,
+                block.getThreadPoolExecutor().getRejectedExecutionHandler());
+        callerRuns.shutdown();
+        block.shutdown();
+    }
+
+    @Test
+    @DisplayName("Priority queue type should pick up decorated tasks with a higher priority first")
+    void testNewThreadPoolExecutor_PriorityQueue() throws InterruptedException {
+        // a decorator that hides the submitted task, like the context aware decorator
+        when(taskDecorator.decorate(any())).thenAnswer(invocation -> {
+            Runnable task = invocation.getArgument(0);
+            return (Runnable) task::run;
+        });
+        asyncProperties.getPool().setCoreSize(1);
+        asyncProperties.getPool().setQueueType(AsyncProperties.QueueType.PRIORITY);
+        ThreadPoolTaskExecutor executor = executorFactory.newThreadPoolExecutor(asyncProperties);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(2);
+        StringBuffer order = new StringBuffer();
+
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.execute(() -> {
+            order.append("bulk ");
+            completed.countDown();
+        });
+        executor.execute(new PrioritizedRunnable(() -> {
+            order.append("urgent ");
+            completed.countDown();
+        }, 10));
+        release.countDown();
+
+        assertInstanceOf(PriorityTaskQueue.class, executor.getThreadPoolExecutor().getQueue());
+        assertTrue(completed.await(1, TimeUnit.SECONDS));
+        assertEquals("urgent bulk ", order.toString());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Blocking saturation policy should wait for room in the queue instead of rejecting")
+    void testBlockingRejectedExecutionHandler() throws InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1),
+                new BlockingRejectedExecutionHandler(Duration.ofSeconds(5)));
+        CountDownLatch completed = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                sleep(5);
+                completed.countDown();
+            });
+        }
+
+        assertTrue(completed.await(1, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Blocking saturation policy should reject once the timeout elapses")
+    void testBlockingRejectedExecutionHandler_Timeout() {
+        CountDownLatch release = new CountDownLatch(1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1),
+                new BlockingRejectedExecutionHandler(Duration.ofMillis(50)));
+        Runnable blocked = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        executor.execute(blocked);
+        executor.execute(blocked);
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(blocked));
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Blocking saturation policy should start a worker for the queued task if the pool has none")
+    void testBlockingRejectedExecutionHandler_StartsWorker() throws InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+        BlockingRejectedExecutionHandler handler = new BlockingRejectedExecutionHandler(Duration.ofSeconds(5));
+        CountDownLatch completed = new CountDownLatch(1);
+
+        handler.rejectedExecution(completed::countDown, executor);
+
+        assertTrue(completed.await(1, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Blocking saturation policy should reject a task queued after the executor was shut down")
+    void testBlockingRejectedExecutionHandler_Shutdown() throws InterruptedException {
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1),
+                new BlockingRejectedExecutionHandler(Duration.ofSeconds(5)));
+        executor.execute(() -> await(releaseFirst));
+        executor.execute(() -> await(releaseSecond));
+        AtomicBoolean ran = new AtomicBoolean();
+        AtomicReference<Throwable> rejection = new AtomicReference<>();
+        Thread submitter = new Thread(() -> {
+            try {
+                executor.execute(() -> ran.set(true));
+            } catch (RejectedExecutionException e) {
+                rejection.set(e);
+            }
+        });
+        submitter.start();
+        sleep(50);
+
+        executor.shutdown();
+        // the worker picks up the second task, so the waiting task is queued while the worker is busy
+        releaseFirst.countDown();
+        submitter.join(1000);
+        releaseSecond.countDown();
+
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, rejection.get());
+        assertFalse(ran.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
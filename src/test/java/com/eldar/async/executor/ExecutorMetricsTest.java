@@ -0,0 +1,107 @@
+package com.eldar.async.executor;
+
+import com.eldar.async.AsyncProperties;
+import com.eldar.async.decorator.ContextAwareTaskDecorator;
+import com.eldar.async.decorator.TaskDecoratorResolver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ExecutorMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExecutorServiceManager executorServiceManager;
+
+    @BeforeEach
+    void setUp() {
+        TaskDecoratorResolver taskDecoratorResolver = mock(TaskDecoratorResolver.class);
+        doReturn(new ContextAwareTaskDecorator()).when(taskDecoratorResolver).getTaskDecorator();
+        meterRegistry = new SimpleMeterRegistry();
+        executorServiceManager = new ExecutorServiceManager(
+                new ExecutorFactory(new AsyncProperties(), taskDecoratorResolver));
+        executorServiceManager.setMetricsBinder(new MicrometerExecutorMetricsBinder(meterRegistry));
+        executorServiceManager.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executorServiceManager.shutdown();
+    }
+
+    @Test
+    @DisplayName("Managed executors should register pool, queue wait and execution metrics tagged by name")
+    void testBindMetrics() throws InterruptedException {
+        Executor executor = executorServiceManager.newExecutor("metrics");
+        CountDownLatch latch = new CountDownLatch(1);
+
+        executor.execute(latch::countDown);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertNotNull(meterRegistry.find("executor.pool.size").tag("name", "metrics").gauge());
+        assertNotNull(meterRegistry.find("executor.rejected").tag("name", "metrics").counter());
+        assertNotNull(meterRegistry.find("executor.idle").tag("name", "metrics").timer());
+        // the execution time is recorded after the task ran
+        waitFor(() -> meterRegistry.get("executor").tag("name", "metrics").timer().count() == 1);
+        assertEquals(1, meterRegistry.get("executor.idle").tag("name", "metrics").timer().count());
+    }
+
+    @Test
+    @DisplayName("Fair queuing executors should register the metrics of their queue tagged by name")
+    void testBindFairQueuingMetrics() throws InterruptedException {
+        FairQueuingExecutor executor = executorServiceManager.newFairQueuingExecutor("fair", 2);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        executor.execute("tenant", latch::countDown);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertNotNull(meterRegistry.find("executor.queued").tag("name", "fair").gauge());
+        assertNotNull(meterRegistry.find("executor.active").tag("name", "fair").gauge());
+        assertEquals(0, meterRegistry.get("executor.rejected").tag("name", "fair").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Shutting down should remove the executor metrics")
+    void testShutdownUnbindsMetrics() {
+        executorServiceManager.newExecutor("metrics");
+
+        executorServiceManager.shutdown();
+
+        assertNull(meterRegistry.find("executor.pool.size").tag("name", "metrics").gauge());
+        assertNull(meterRegistry.find("executor.pool.size").tag("name", ExecutorServiceManager.DEFAULT_EXECUTOR).gauge());
+    }
+
+    @Test
+    @DisplayName("A binder set after the executors were created should bind their metrics, a null registry is rejected")
+    void testSetMetricsBinderLate() {
+        ExecutorServiceManager manager = new ExecutorServiceManager(
+                new ExecutorFactory(new AsyncProperties(), mock(TaskDecoratorResolver.class)));
+        manager.init();
+        SimpleMeterRegistry lateRegistry = new SimpleMeterRegistry();
+
+        manager.setMetricsBinder(new MicrometerExecutorMetricsBinder(lateRegistry));
+
+        assertNotNull(lateRegistry.find("executor.pool.size").tag("name", ExecutorServiceManager.DEFAULT_EXECUTOR)
+                .gauge());
+        assertThrows(IllegalArgumentException.class, () -> new MicrometerExecutorMetricsBinder(null));
+        manager.shutdown();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
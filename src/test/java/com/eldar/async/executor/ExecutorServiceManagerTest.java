@@ -32,7 +32,7 @@ class ExecutorServiceManagerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        when(executorFactory.newTaskExecutor()).thenReturn(defaultExecutor);
+        when(executorFactory.newExecutor()).thenReturn(defaultExecutor);
         executorServiceManager = new ExecutorServiceManager(executorFactory);
         executorServiceManager.init();
     }
@@ -101,9 +101,9 @@ class ExecutorServiceManagerTest {
     @Test
     @DisplayName("Attempt to create executor with existing name should return existing executor")
     void testNewExecutor_ExistingExecutor() {
-        when(executorFactory.newTaskExecutor(any())).thenReturn(newExecutor);
+        when(executorFactory.newExecutor(any())).thenReturn(newExecutor);
         Executor expectedExecutor = executorServiceManager.newExecutor("newExecutor");
-        when(executorFactory.newTaskExecutor()).thenReturn(new ThreadPoolTaskExecutor());
+        when(executorFactory.newExecutor()).thenReturn(new ThreadPoolTaskExecutor());
 
         Executor actualExecutor = executorServiceManager.newExecutor("newExecutor");
 
@@ -113,9 +113,9 @@ class ExecutorServiceManagerTest {
     @Test
     @DisplayName("Creating new executor should return new executor")
     void testNewExecutor_NewExecutor() {
-        when(executorFactory.newTaskExecutor(any())).thenReturn(newExecutor);
+        when(executorFactory.newExecutor(any())).thenReturn(newExecutor);
         Executor expectedExecutor = executorServiceManager.newExecutor("newExecutor");
-        when(executorFactory.newTaskExecutor()).thenReturn(new ThreadPoolTaskExecutor());
+        when(executorFactory.newExecutor()).thenReturn(new ThreadPoolTaskExecutor());
 
         Executor actualExecutor = executorServiceManager.getExecutor("newExecutor1");
 
@@ -131,7 +131,7 @@ class ExecutorServiceManagerTest {
         newExecutor.setThreadNamePrefix("test-async-properties");
         asyncProperties.getPool().setCoreSize(3);
         asyncProperties.setThreadNamePrefix("test-async-properties");
-        doReturn(newExecutor).when(executorFactory).newTaskExecutor(asyncProperties);
+        doReturn(newExecutor).when(executorFactory).newExecutor(asyncProperties);
 
         ThreadPoolTaskExecutor actualExecutor = (ThreadPoolTaskExecutor) executorServiceManager.newExecutor("newExecutor1", asyncProperties);
 
@@ -153,7 +153,7 @@ class ExecutorServiceManagerTest {
     void testShutdown() {
         executorServiceManager = new ExecutorServiceManager(executorFactory);
         executorServiceManager.init();
-        when(executorFactory.newTaskExecutor(any())).thenReturn(newExecutor);
+        when(executorFactory.newExecutor(any())).thenReturn(newExecutor);
         Executor executor1 =  executorServiceManager.newExecutor("executor1");
         Executor executor2 = executorServiceManager.newExecutor("executor2");
 
@@ -164,4 +164,11 @@ class ExecutorServiceManagerTest {
         assertNull(executorServiceManager.getExecutor("executor1"));
         assertNull(executorServiceManager.getExecutor("executor2"));
     }
+
+    @Test
+    @DisplayName("Test resize should throw for unknown executors and executors that can't be resized")
+    void testResize_NotResizable() {
+        assertThrows(IllegalArgumentException.class, () -> executorServiceManager.resize("unknown", 1, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> executorServiceManager.resize(DEFAULT_EXECUTOR, 1, 1, 1));
+    }
 }
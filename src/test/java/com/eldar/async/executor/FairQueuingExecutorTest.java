@@ -0,0 +1,141 @@
+package com.eldar.async.executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairQueuingExecutorTest {
+
+    private ExecutorService delegate;
+
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        delegate = Executors.newFixedThreadPool(2);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        delegate.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Keys should take turns instead of running in submission order")
+    void testRoundRobin() throws InterruptedException {
+        FairQueuingExecutor executor = new FairQueuingExecutor(delegate, 1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(8);
+        executor.execute("blocker", this::awaitRelease);
+        for (int i = 0; i < 6; i++) {
+            executor.execute("big", () -> record(order, "big", done));
+        }
+        executor.execute("small", () -> record(order, "small", done));
+        executor.execute("small", () -> record(order, "small", done));
+
+        release.countDown();
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("big", "small", "big", "small"), order.subList(0, 4));
+    }
+
+    @Test
+    @DisplayName("A key should get its weight worth of tasks per round")
+    void testWeights() throws InterruptedException {
+        FairQueuingExecutor executor = new FairQueuingExecutor(delegate, 1);
+        executor.setWeight("heavy", 2);
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(6);
+        executor.execute("blocker", this::awaitRelease);
+        for (int i = 0; i < 3; i++) {
+            executor.execute("light", () -> record(order, "light", done));
+            executor.execute("heavy", () -> record(order, "heavy", done));
+        }
+
+        release.countDown();
+
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(List.of("light", "heavy", "heavy", "light", "heavy", "light"), order);
+    }
+
+    @Test
+    @DisplayName("A key at its concurrency cap should leave the capacity to other keys")
+    void testKeyMaxConcurrency() throws InterruptedException {
+        FairQueuingExecutor executor = new FairQueuingExecutor(delegate, 2);
+        executor.setMaxConcurrency("capped", 1);
+        AtomicInteger otherRuns = new AtomicInteger();
+        CountDownLatch otherDone = new CountDownLatch(1);
+
+        executor.execute("capped", this::awaitRelease);
+        executor.execute("capped", this::awaitRelease);
+        executor.forKey("other").execute(() -> {
+            otherRuns.incrementAndGet();
+            otherDone.countDown();
+        });
+
+        assertTrue(otherDone.await(1, TimeUnit.SECONDS));
+        assertEquals(1, otherRuns.get());
+        assertEquals(1, executor.getQueuedCount("capped"));
+    }
+
+    @Test
+    @DisplayName("Once the delegate is shut down, queued tasks should be rejected instead of running on the dispatching thread")
+    void testDelegateShutdown() throws InterruptedException {
+        AtomicInteger rejected = new AtomicInteger();
+        FairQueuingExecutor executor = new FairQueuingExecutor(delegate, 1, task -> rejected.incrementAndGet());
+        AtomicInteger runs = new AtomicInteger();
+        int taskCount = 5_000;
+        executor.execute("blocker", this::awaitRelease);
+        for (int i = 0; i < taskCount; i++) {
+            executor.execute("key-" + i % 3, runs::incrementAndGet);
+        }
+        delegate.shutdown();
+
+        // the blocker completes on the delegate, and its completion dispatches the whole backlog
+        release.countDown();
+
+        assertTrue(delegate.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(taskCount, rejected.get());
+        assertEquals(taskCount, executor.getRejectedCount());
+        assertEquals(0, runs.get());
+        assertEquals(0, executor.getQueuedCount());
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(runs::incrementAndGet));
+    }
+
+    @Test
+    @DisplayName("Invalid parameters should throw")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new FairQueuingExecutor(delegate, 0));
+        assertThrows(IllegalArgumentException.class, () -> new FairQueuingExecutor(delegate, 1, null));
+        FairQueuingExecutor executor = new FairQueuingExecutor(delegate, 1);
+        assertThrows(IllegalArgumentException.class, () -> executor.forKey(""));
+        assertThrows(IllegalArgumentException.class, () -> executor.setWeight("key", 0));
+    }
+
+    private static void record(List<String> order, String key, CountDownLatch done) {
+        order.add(key);
+        done.countDown();
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
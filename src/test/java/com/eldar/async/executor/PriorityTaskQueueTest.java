@@ -0,0 +1,110 @@
+package com.eldar.async.executor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityTaskQueueTest {
+
+    @Test
+    @DisplayName("Tasks with a higher priority should be taken first, tasks of the same priority in submission order")
+    void testPriorityOrder() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(10, Duration.ofHours(1));
+        Runnable low = () -> {};
+        Runnable first = () -> {};
+        Runnable second = () -> {};
+        Runnable high = new PrioritizedRunnable(() -> {}, 5);
+        Runnable negative = new PrioritizedRunnable(() -> {}, -1);
+
+        queue.offer(negative);
+        queue.offer(low);
+        queue.offer(first);
+        queue.offer(high);
+        queue.offer(second);
+
+        assertSame(high, queue.poll());
+        assertSame(low, queue.poll());
+        assertSame(first, queue.poll());
+        assertSame(second, queue.poll());
+        assertSame(negative, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    @DisplayName("A task that waited longer than its priority gap in aging steps should be taken before urgent tasks")
+    void testAging() throws InterruptedException {
+        PriorityTaskQueue queue = new PriorityTaskQueue(10, Duration.ofMillis(10));
+        Runnable low = () -> {};
+        queue.offer(low);
+        Thread.sleep(50);
+        Runnable aged = new PrioritizedRunnable(() -> {}, 2);
+        Runnable urgent = new PrioritizedRunnable(() -> {}, 100);
+        queue.offer(aged);
+        queue.offer(urgent);
+
+        // the low priority task waited 5 aging steps, more than the 2 levels of the new task
+        assertSame(urgent, queue.poll());
+        assertSame(low, queue.poll());
+        assertSame(aged, queue.poll());
+    }
+
+    @Test
+    @DisplayName("The queue should refuse tasks beyond its capacity and accept them once the capacity is raised")
+    void testCapacity() throws InterruptedException {
+        PriorityTaskQueue queue = new PriorityTaskQueue(1, Duration.ofSeconds(1));
+        assertTrue(queue.offer(() -> {}));
+        assertFalse(queue.offer(() -> {}));
+        assertEquals(0, queue.remainingCapacity());
+
+        CountDownLatch offered = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                if (queue.offer(() -> {}, 1, TimeUnit.SECONDS)) {
+                    offered.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+
+        queue.setCapacity(2);
+
+        assertTrue(offered.await(1, TimeUnit.SECONDS));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    @DisplayName("Removing and draining should hand back the original tasks")
+    void testRemoveAndDrain() {
+        PriorityTaskQueue queue = new PriorityTaskQueue(10, Duration.ofSeconds(1));
+        Runnable removed = () -> {};
+        Runnable low = () -> {};
+        Runnable high = new PrioritizedRunnable(() -> {}, 1);
+        queue.offer(removed);
+        queue.offer(low);
+        queue.offer(high);
+
+        assertTrue(queue.remove(removed));
+        assertFalse(queue.contains(removed));
+        List<Runnable> drained = new ArrayList<>();
+        assertEquals(2, queue.drainTo(drained));
+        assertEquals(List.of(high, low), drained);
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    @DisplayName("A non positive capacity or aging step should throw")
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new PriorityTaskQueue(0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityTaskQueue(1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new PriorityTaskQueue(1, null));
+    }
+}
@@ -0,0 +1,204 @@
+package com.eldar.async.executor;
+
+import com.eldar.async.AsyncProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResizableThreadPoolTaskExecutorTest {
+
+    private ResizableThreadPoolTaskExecutor executor;
+
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ResizableThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(10);
+        executor.initialize();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Resizing should change the pool sizes and the queue capacity of the running pool")
+    void testResize() {
+        executor.resize(4, 8, 20);
+
+        assertEquals(4, executor.getThreadPoolExecutor().getCorePoolSize());
+        assertEquals(8, executor.getThreadPoolExecutor().getMaximumPoolSize());
+        assertEquals(20, executor.getThreadPoolExecutor().getQueue().remainingCapacity());
+
+        executor.resize(2, 2, 5);
+
+        assertEquals(2, executor.getThreadPoolExecutor().getCorePoolSize());
+        assertEquals(2, executor.getThreadPoolExecutor().getMaximumPoolSize());
+        assertEquals(5, executor.getThreadPoolExecutor().getQueue().remainingCapacity());
+    }
+
+    @Test
+    @DisplayName("Resizing with a core size greater than the max size should throw")
+    void testResize_InvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> executor.resize(4, 2, 10));
+        assertThrows(IllegalArgumentException.class, () -> executor.resize(1, 1, 0));
+    }
+
+    @Test
+    @DisplayName("Lowering the queue capacity should refuse new tasks until the queue drains")
+    void testResize_QueueCapacity() {
+        for (int i = 0; i < 6; i++) {
+            executor.execute(this::awaitRelease);
+        }
+
+        executor.resize(1, 1, 2);
+
+        assertEquals(5, executor.getThreadPoolExecutor().getQueue().size());
+        assertFalse(executor.getThreadPoolExecutor().getQueue().offer(this::awaitRelease));
+    }
+
+    @Test
+    @DisplayName("A blocking insertion should succeed once the capacity is raised")
+    void testQueue_BlockingOfferAfterResize() throws InterruptedException {
+        ResizableBlockingQueue<Integer> queue = new ResizableBlockingQueue<>(1);
+        queue.offer(1);
+        CountDownLatch offered = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                if (queue.offer(2, 1, TimeUnit.SECONDS)) {
+                    offered.countDown();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        thread.start();
+
+        queue.setCapacity(2);
+
+        assertTrue(offered.await(1, TimeUnit.SECONDS));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    @DisplayName("Blocked insertions should succeed once the queue is drained or cleared")
+    void testQueue_BlockingOfferAfterDrain() throws InterruptedException {
+        ResizableBlockingQueue<Integer> queue = new ResizableBlockingQueue<>(2);
+        queue.offer(1);
+        queue.offer(2);
+        CountDownLatch offered = offerInBackground(queue, 2);
+        Thread.sleep(100);
+
+        queue.drainTo(new ArrayList<>());
+
+        assertTrue(offered.await(500, TimeUnit.MILLISECONDS));
+        offered = offerInBackground(queue, 2);
+        Thread.sleep(100);
+
+        queue.clear();
+
+        assertTrue(offered.await(500, TimeUnit.MILLISECONDS));
+        assertEquals(2, queue.size());
+    }
+
+    private static CountDownLatch offerInBackground(ResizableBlockingQueue<Integer> queue, int count) {
+        CountDownLatch offered = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            int element = i;
+            new Thread(() -> {
+                try {
+                    if (queue.offer(element, 5, TimeUnit.SECONDS)) {
+                        offered.countDown();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }).start();
+        }
+        return offered;
+    }
+
+    @Test
+    @DisplayName("The autoscaler should add threads while the queue is backed up and remove them once it's idle")
+    void testAutoscaler() throws InterruptedException {
+        AsyncProperties.Autoscaling autoscaling = new AsyncProperties.Autoscaling();
+        autoscaling.setMinCoreSize(1);
+        autoscaling.setMaxCoreSize(4);
+        autoscaling.setStep(2);
+        ExecutorAutoscaler autoscaler = new ExecutorAutoscaler("test", executor, autoscaling);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(this::awaitRelease);
+        }
+
+        autoscaler.adjust();
+        assertEquals(3, executor.getThreadPoolExecutor().getCorePoolSize());
+        // no throughput gain from the previous addition, the core size is kept
+        autoscaler.adjust();
+        assertEquals(3, executor.getThreadPoolExecutor().getCorePoolSize());
+        autoscaler.adjust();
+        assertEquals(4, executor.getThreadPoolExecutor().getCorePoolSize());
+
+        release.countDown();
+        waitForEmptyQueue();
+        autoscaler.adjust();
+        assertEquals(2, executor.getThreadPoolExecutor().getCorePoolSize());
+    }
+
+    @Test
+    @DisplayName("The autoscaler should reject bounds that don't fit the pool")
+    void testAutoscaler_InvalidBounds() {
+        AsyncProperties.Autoscaling inverted = new AsyncProperties.Autoscaling();
+        inverted.setMinCoreSize(4);
+        inverted.setMaxCoreSize(2);
+        AsyncProperties.Autoscaling noStep = new AsyncProperties.Autoscaling();
+        noStep.setStep(0);
+        AsyncProperties.Autoscaling aboveCore = new AsyncProperties.Autoscaling();
+        aboveCore.setMinCoreSize(2);
+
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorAutoscaler("test", executor, inverted));
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorAutoscaler("test", executor, noStep));
+        // the core size of the pool is 1
+        assertThrows(IllegalArgumentException.class, () -> new ExecutorAutoscaler("test", executor, aboveCore));
+    }
+
+    @Test
+    @DisplayName("A failed adjustment should not stop the scheduled autoscaler")
+    void testAutoscaler_FailedAdjustment() {
+        ResizableThreadPoolTaskExecutor uninitialized = new ResizableThreadPoolTaskExecutor();
+        uninitialized.setCorePoolSize(1);
+        ExecutorAutoscaler autoscaler = new ExecutorAutoscaler("test", uninitialized,
+                new AsyncProperties.Autoscaling());
+
+        assertThrows(IllegalStateException.class, autoscaler::adjust);
+        assertDoesNotThrow(autoscaler::run);
+    }
+
+    private void waitForEmptyQueue() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while ((executor.getThreadPoolExecutor().getQueue().size() > 0
+                || executor.getThreadPoolExecutor().getActiveCount() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
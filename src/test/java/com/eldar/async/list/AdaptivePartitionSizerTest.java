@@ -0,0 +1,75 @@
+package com.eldar.async.list;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptivePartitionSizerTest {
+
+    private static final String OPERATION_KEY = "operation";
+
+    private AdaptivePartitionSizer partitionSizer;
+
+    @BeforeEach
+    void setUp() {
+        partitionSizer = new AdaptivePartitionSizer();
+    }
+
+    @Test
+    @DisplayName("Small list should be spread over all the executor threads")
+    void testPartitionSize_SmallListIsSpread() {
+        ForkJoinPool executor = new ForkJoinPool(4);
+
+        int partitionSize = partitionSizer.partitionSize(OPERATION_KEY, 50, executor);
+
+        // 4 threads * PARTITIONS_PER_THREAD partitions
+        assertEquals(4, partitionSize);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Large list should not produce more partitions than the pool can hold")
+    void testPartitionSize_BoundedByPoolCapacity() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(8);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(100);
+        executor.initialize();
+
+        int partitionSize = partitionSizer.partitionSize(OPERATION_KEY, 5_000_000, executor);
+
+        assertTrue(Math.ceil(5_000_000d / partitionSize) <= 116);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Fast items should be grouped into bigger partitions once latency is known")
+    void testPartitionSize_AdaptsToLatency() {
+        ForkJoinPool executor = new ForkJoinPool(4);
+        int initialSize = partitionSizer.partitionSize(OPERATION_KEY, 100_000, executor);
+
+        // 1000 items in 100 microseconds - 100 nanoseconds per item
+        partitionSizer.record(OPERATION_KEY, 1000, 100_000);
+        int adaptedSize = partitionSizer.partitionSize(OPERATION_KEY, 100_000, executor);
+
+        assertEquals(100.0, partitionSizer.getItemLatencyNanos(OPERATION_KEY));
+        assertEquals(6250, initialSize);
+        assertEquals(10_000, adaptedSize);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Partition size should never exceed the number of items")
+    void testPartitionSize_NotGreaterThanItemCount() {
+        partitionSizer.record(OPERATION_KEY, 1, 1);
+
+        int partitionSize = partitionSizer.partitionSize(OPERATION_KEY, 10, Runnable::run);
+
+        assertEquals(10, partitionSize);
+    }
+}
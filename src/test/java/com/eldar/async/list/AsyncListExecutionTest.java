@@ -5,18 +5,40 @@ import com.eldar.async.decorator.ContextAwareTaskDecorator;
 import com.eldar.async.decorator.TaskDecoratorResolver;
 import com.eldar.async.executor.ExecutorFactory;
 import com.eldar.async.executor.ExecutorServiceManager;
+import com.eldar.async.executor.MicrometerExecutorMetricsBinder;
+import com.eldar.async.executor.ResizableThreadPoolTaskExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.slf4j.MDC;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,12 +51,7 @@ class AsyncListExecutionTest {
 
     @BeforeAll
     static void beforeAll() {
-        AsyncProperties asyncProperties = new AsyncProperties();
-        TaskDecoratorResolver taskDecoratorResolver = Mockito.mock(TaskDecoratorResolver.class);
-        doReturn(new ContextAwareTaskDecorator()).when(taskDecoratorResolver).getTaskDecorator();
-        ExecutorFactory executorFactory = new ExecutorFactory(asyncProperties, taskDecoratorResolver);
-        ExecutorServiceManager executorServiceManager = new ExecutorServiceManager(executorFactory);
-        asyncExecution = new AsyncListExecution(executorServiceManager);
+        asyncExecution = new AsyncListExecution(newManager(new AsyncProperties()));
     }
 
     @Test
@@ -193,5 +210,1277 @@ class AsyncListExecutionTest {
         assertEquals(Collections.emptyList(), result);
     }
 
+    @Test
+    @DisplayName("Testing withAutoPartition with function that returns a value - should process all items")
+    void testWithAutoPartition_DefaultExecutor() {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            items.add(i);
+        }
+        Function<List<Integer>, List<Integer>> function = item -> item.stream().map(i -> i * 2).toList();
+
+        // the second call is sized using the latency recorded by the first one
+        List<Integer> firstResult = asyncExecution.withAutoPartition("double", items, function,
+                item -> item.stream().flatMap(Collection::stream).toList());
+        List<Integer> secondResult = asyncExecution.withAutoPartition("double", items, function,
+                item -> item.stream().flatMap(Collection::stream).toList());
+
+        List<Integer> expectedResults = items.stream().map(i -> i * 2).toList();
+        assertEquals(expectedResults, firstResult);
+        assertEquals(expectedResults, secondResult);
+    }
+
+    @Test
+    @DisplayName("Testing withAutoPartition with empty operation key should throw exception")
+    void testWithAutoPartition_EmptyOperationKey() {
+        List<Object> items = List.of("");
+        Consumer<List<Object>> function = mock(Consumer.class);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> asyncExecution.withAutoPartition("", items, function));
+
+        verify(function, never()).accept(anyList());
+    }
+
+    @Test
+    @DisplayName("Testing withStreamingPartition should not exceed the max in flight partitions")
+    void testWithStreamingPartition_MaxInFlight() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxObservedInFlight = new AtomicInteger();
+        List<Integer> testItems = new CopyOnWriteArrayList<>();
+        Consumer<List<Integer>> function = partition -> {
+            maxObservedInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            testItems.addAll(partition);
+            sleep(5);
+            inFlight.decrementAndGet();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        asyncExecution.withStreamingPartition(IntStream.range(0, 200).boxed(), function, 5, 2, executor);
+
+        assertEquals(200, testItems.size());
+        assertTrue(maxObservedInFlight.get() <= 2);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withStreamingPartition with function that returns a value - should keep partitions order")
+    void testWithStreamingPartition_CombineResults() {
+        Iterator<Integer> items = IntStream.rangeClosed(1, 10).iterator();
+        Function<List<Integer>, List<Integer>> function = item -> item.stream().map(i -> i * 2).toList();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        List<Integer> result = asyncExecution.withStreamingPartition(items, function, PARTITION_SIZE, 2, executor,
+                item -> item.stream().flatMap(Collection::stream).toList());
+
+        assertEquals(Arrays.asList(2, 4, 6, 8, 10, 12, 14, 16, 18, 20), result);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withStreamingPartition with a timeout - the timeout should cover the whole call and cancel the rest")
+    void testWithStreamingPartition_Timeout() {
+        AtomicInteger started = new AtomicInteger();
+        Function<List<Integer>, Integer> function = partition -> {
+            started.incrementAndGet();
+            sleep(100);
+            return partition.size();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        PartitionOptions options = PartitionOptions.builder().timeout(Duration.ofMillis(250)).build();
+
+        long start = System.nanoTime();
+        Integer result = asyncExecution.withStreamingPartition(IntStream.range(0, 20).iterator(), function, 2, 1,
+                executor, results -> results.stream().mapToInt(Integer::intValue).sum(), options);
+
+        assertNull(result);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertTrue(started.get() < 10);
+        assertThrows(RuntimeException.class, () -> asyncExecution.withStreamingPartition(
+                IntStream.range(0, 20).iterator(), function, 2, 1, executor,
+                results -> results.stream().mapToInt(Integer::intValue).sum(), options.toBuilder().toThrow(true).build()));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionAsync with function that returns a value - should complete with the combined result")
+    void testWithPartitionAsync_CombineResults() {
+        List<Integer> items = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        Function<List<Integer>, List<Integer>> function = item -> item.stream().map(i -> i * 2).toList();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        CompletableFuture<List<Integer>> result = asyncExecution.withPartitionAsync(items, function, PARTITION_SIZE,
+                executor, item -> item.stream().flatMap(Collection::stream).toList(), true);
+
+        assertEquals(Arrays.asList(2, 4, 6, 8, 10, 12, 14, 16, 18, 20), result.join());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionAsync with a function that throws an exception - should complete exceptionally")
+    void testWithPartitionAsync_MethodThrowsException() {
+        List<Integer> items = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        Consumer<List<Integer>> function = item -> item.forEach(i -> System.out.println(i / 0));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        CompletableFuture<Void> result = asyncExecution.withPartitionAsync(items, function, PARTITION_SIZE, executor,
+                true);
+
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        assertInstanceOf(ArithmeticException.class, exception.getCause());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionAsync with a function that throws an exception - should only log the exception")
+    void testWithPartitionAsync_MethodThrowsExceptionNotToThrow() {
+        List<Integer> items = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        Function<List<Integer>, List<Integer>> function = item -> item.stream().map(i -> i / 0).toList();
+
+        CompletableFuture<List<Integer>> result = asyncExecution.withPartitionAsync(items, function, PARTITION_SIZE,
+                item -> item.stream().flatMap(Collection::stream).toList());
+
+        assertEquals(Collections.emptyList(), result.join());
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionReduce should merge the results of all the partitions")
+    void testWithPartitionReduce_Sum() {
+        List<Integer> items = IntStream.rangeClosed(1, 1000).boxed().toList();
+        Function<List<Integer>, Long> function = partition -> partition.stream().mapToLong(Integer::longValue).sum();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        Long result = asyncExecution.withPartitionReduce(items, function, 7, executor, 0L, Long::sum);
+
+        assertEquals(500500L, result);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionReduce with a non commutative combiner - the results should be merged in list order")
+    void testWithPartitionReduce_KeepsListOrder() {
+        List<Integer> items = IntStream.range(0, 100).boxed().toList();
+        // the later partitions complete first
+        Function<List<Integer>, String> function = partition -> {
+            sleep(100 - partition.get(0));
+            return partition.stream().map(String::valueOf).collect(Collectors.joining(","));
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        String result = asyncExecution.withPartitionReduce(items, function, 9, executor, "",
+                (first, second) -> first.isEmpty() ? second : first + "," + second);
+
+        assertEquals(items.stream().map(String::valueOf).collect(Collectors.joining(",")), result);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionReduce with a function that throws an exception - failed partitions are skipped unless to throw")
+    void testWithPartitionReduce_MethodThrowsException() {
+        List<Integer> items = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+        Function<List<Integer>, Set<Integer>> function = partition -> {
+            if (partition.contains(4)) {
+                throw new IllegalStateException("failed partition");
+            }
+            return new HashSet<>(partition);
+        };
+        BinaryOperator<Set<Integer>> union = (first, second) -> {
+            Set<Integer> merged = new HashSet<>(first);
+            merged.addAll(second);
+            return merged;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Set<Integer> result = asyncExecution.withPartitionReduce(items, function, PARTITION_SIZE,
+                Collections.emptySet(), union);
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> asyncExecution.withPartitionReduce(
+                items, function, PARTITION_SIZE, executor, Collections.emptySet(), union,
+                PartitionOptions.builder().toThrow(true).build()));
+
+        assertEquals(Set.of(1, 2, 3, 7, 8, 9, 10), result);
+        assertInstanceOf(IllegalStateException.class, exception.getCause().getCause());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with fail fast - a failed partition should cancel the other partitions")
+    void testWithPartition_FailFastCancelsPartitions() {
+        List<Integer> items = IntStream.range(0, 20).boxed().toList();
+        AtomicInteger executed = new AtomicInteger();
+        AtomicInteger interrupted = new AtomicInteger();
+        Consumer<List<Integer>> function = partition -> {
+            executed.incrementAndGet();
+            if (partition.contains(0)) {
+                throw new IllegalStateException("failed partition");
+            }
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        PartitionOptions options = PartitionOptions.builder().failFast(true).toThrow(true).build();
+
+        long start = System.nanoTime();
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> asyncExecution.withPartition(items, function, 1, executor, options));
 
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+        assertInstanceOf(IllegalStateException.class, exception.getCause().getCause());
+        // only the partitions that were picked up by the 2 workers before the failure were executed
+        assertTrue(executed.get() <= 3);
+        assertTrue(interrupted.get() <= 1);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a priority - partitions should be picked up ahead of queued bulk work")
+    void testWithPartition_Priority() throws InterruptedException {
+        ResizableThreadPoolTaskExecutor executor = new ResizableThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setPriorityAgingStep(Duration.ofHours(1));
+        executor.setTaskDecorator(new ContextAwareTaskDecorator());
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> order = new CopyOnWriteArrayList<>();
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> order.add("bulk"));
+        }
+        PartitionOptions options = PartitionOptions.builder().priority(10).toThrow(true).build();
+
+        Thread caller = new Thread(() -> asyncExecution.withPartition(List.of(1, 2), (Consumer<List<Integer>>) partition ->
+                order.add("urgent"), 1, executor, options));
+        caller.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (executor.getThreadPoolExecutor().getQueue().size() < 5 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        caller.join(1000);
+
+        assertEquals(List.of("urgent", "urgent"), order.subList(0, 2));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a retry policy - only the failed partitions should be executed again")
+    void testWithPartition_RetryFailedPartitions() {
+        List<Integer> items = IntStream.range(0, 10).boxed().toList();
+        Map<Integer, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        Function<List<Integer>, List<Integer>> function = partition -> {
+            int attempt = attempts.computeIfAbsent(partition.get(0), key -> new AtomicInteger()).incrementAndGet();
+            if (partition.contains(3) && attempt < 3) {
+                throw new IllegalStateException("deadlock");
+            }
+            return partition;
+        };
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(3).initialBackoff(Duration.ofMillis(10)).build();
+        PartitionOptions options = PartitionOptions.builder().toThrow(true).retryPolicy(retryPolicy).build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        List<Integer> result = asyncExecution.withPartition(items, function, PARTITION_SIZE, executor,
+                partitions -> partitions.stream().flatMap(Collection::stream).toList(), options);
+
+        assertEquals(items, result);
+        assertEquals(3, attempts.get(3).get());
+        assertEquals(1, attempts.get(0).get());
+        assertEquals(1, attempts.get(6).get());
+        assertEquals(1, attempts.get(9).get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a retry policy - exceptions that are not retryable should fail right away")
+    void testWithPartition_RetryNotRetryable() {
+        List<Integer> items = IntStream.range(0, 4).boxed().toList();
+        AtomicInteger invocations = new AtomicInteger();
+        Consumer<List<Integer>> function = partition -> {
+            invocations.incrementAndGet();
+            throw new IllegalArgumentException("bad input");
+        };
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(5).initialBackoff(Duration.ofMillis(1))
+                .retryOn(exception -> !(exception instanceof IllegalArgumentException)).build();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        asyncExecution.withPartition(items, function, 1, executor,
+                PartitionOptions.builder().retryPolicy(retryPolicy).build());
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> asyncExecution.withPartition(items,
+                function, 1, executor, PartitionOptions.builder().toThrow(true).retryPolicy(retryPolicy).build()));
+
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause().getCause());
+        assertEquals(8, invocations.get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a retry policy - the last failure should be thrown once the attempts run out")
+    void testWithPartition_RetryExhausted() {
+        List<Integer> items = List.of(1);
+        AtomicInteger invocations = new AtomicInteger();
+        Consumer<List<Integer>> function = partition -> {
+            throw new IllegalStateException("attempt " + invocations.incrementAndGet());
+        };
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(3).initialBackoff(Duration.ofMillis(1)).build();
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> asyncExecution.withPartition(items,
+                function, 1, executor, PartitionOptions.builder().toThrow(true).retryPolicy(retryPolicy).build()));
+
+        assertEquals("attempt 3", exception.getCause().getCause().getMessage());
+        assertEquals(3, invocations.get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a retry policy - the backoff should not hold a worker thread")
+    void testWithPartition_RetryBackoffFreesWorker() {
+        List<Integer> items = List.of(0, 1, 2);
+        List<Integer> completed = new CopyOnWriteArrayList<>();
+        AtomicInteger failures = new AtomicInteger();
+        Consumer<List<Integer>> function = partition -> {
+            if (partition.contains(0) && failures.getAndIncrement() == 0) {
+                throw new IllegalStateException("transient");
+            }
+            completed.add(partition.get(0));
+        };
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(2).initialBackoff(Duration.ofMillis(200))
+                .jitter(0).build();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        asyncExecution.withPartition(items, function, 1, executor,
+                PartitionOptions.builder().toThrow(true).retryPolicy(retryPolicy).build());
+
+        // the single worker ran the other partitions while the first one was waiting to be retried
+        assertEquals(List.of(1, 2, 0), completed);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing retry policy - the backoff should grow exponentially up to the max backoff, reduced by the jitter")
+    void testRetryPolicy_Backoff() {
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(10).initialBackoff(Duration.ofMillis(100))
+                .maxBackoff(Duration.ofMillis(500)).multiplier(2).jitter(0.5).build();
+
+        for (int i = 0; i < 100; i++) {
+            long first = retryPolicy.backoff(1).toMillis();
+            long third = retryPolicy.backoff(3).toMillis();
+            long capped = retryPolicy.backoff(8).toMillis();
+            assertTrue(first >= 50 && first <= 100);
+            assertTrue(third >= 200 && third <= 400);
+            assertTrue(capped >= 250 && capped <= 500);
+        }
+        assertTrue(retryPolicy.shouldRetry(new IllegalStateException(), 9));
+        assertFalse(retryPolicy.shouldRetry(new IllegalStateException(), 10));
+        assertFalse(retryPolicy.shouldRetry(new InterruptedException(), 1));
+        assertThrows(IllegalArgumentException.class, () -> asyncExecution.withPartition(List.of(1), list -> {}, 1,
+                Runnable::run, PartitionOptions.builder().retryPolicy(RetryPolicy.builder().maxAttempts(0).build())
+                        .build()));
+        assertThrows(IllegalArgumentException.class, () -> asyncExecution.withPartition(List.of(1), list -> {}, 1,
+                Runnable::run, PartitionOptions.builder().retryPolicy(RetryPolicy.builder().jitter(2).build())
+                        .build()));
+    }
+
+    @Test
+    @DisplayName("Testing hedging - a straggler partition should be hedged and the loser should be interrupted")
+    void testWithPartitionedResult_HedgeStraggler() throws InterruptedException {
+        List<Integer> items = IntStream.range(0, 10).boxed().toList();
+        AtomicInteger stragglerInvocations = new AtomicInteger();
+        CountDownLatch loserInterrupted = new CountDownLatch(1);
+        Function<List<Integer>, Integer> function = partition -> {
+            long delay = partition.get(0) == 9 && stragglerInvocations.getAndIncrement() == 0 ? 10_000 : 20;
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                loserInterrupted.countDown();
+                Thread.currentThread().interrupt();
+            }
+            return partition.get(0);
+        };
+        // no cap, a sibling delayed by the scheduler may be hedged too
+        HedgingPolicy hedgingPolicy = HedgingPolicy.builder().percentile(0.9).minSamples(3).maxExtraLoad(1).build();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        long start = System.nanoTime();
+        PartitionedResult<Integer> result = asyncExecution.withPartitionedResult(items, function, 1, executor,
+                PartitionOptions.builder().hedgingPolicy(hedgingPolicy).build());
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5_000);
+        assertTrue(result.isSuccessful());
+        assertEquals(items, result.getResults());
+        assertEquals(2, stragglerInvocations.get());
+        assertTrue(loserInterrupted.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing hedging - the number of hedges should not exceed the max extra load")
+    void testWithPartition_HedgeCap() {
+        ExecutorServiceManager executorServiceManager = newManager(new AsyncProperties());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        executorServiceManager.setMetricsBinder(new MicrometerExecutorMetricsBinder(meterRegistry));
+        executorServiceManager.init();
+        AsyncListExecutor execution = new AsyncListExecution(executorServiceManager);
+        List<Integer> items = IntStream.range(0, 10).boxed().toList();
+        Set<Integer> started = ConcurrentHashMap.newKeySet();
+        Consumer<List<Integer>> function = partition -> {
+            boolean isStraggler = partition.get(0) >= 7 && started.add(partition.get(0));
+            sleep(isStraggler ? 500 : 20);
+        };
+        HedgingPolicy hedgingPolicy = HedgingPolicy.builder().percentile(0.5).minSamples(3).maxExtraLoad(0.1).build();
+
+        execution.withPartition(items, function, 1, executorServiceManager.getDefaultExecutor(),
+                PartitionOptions.builder().toThrow(true).hedgingPolicy(hedgingPolicy).build());
+
+        // 3 stragglers, but a single hedge is allowed for 10 partitions
+        String executorName = ExecutorServiceManager.DEFAULT_EXECUTOR;
+        assertEquals(1, meterRegistry.get("async.partition.hedges").tag("executor", executorName).counter().count());
+        assertThrows(IllegalArgumentException.class, () -> execution.withPartition(List.of(1), list -> {}, 1,
+                Runnable::run, PartitionOptions.builder().hedgingPolicy(HedgingPolicy.builder().percentile(0).build())
+                        .build()));
+        executorServiceManager.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionedResult - every partition should report its range, status, result and timings")
+    void testWithPartitionedResult() {
+        List<Integer> items = IntStream.range(0, 10).boxed().toList();
+        Function<List<Integer>, Integer> function = partition -> {
+            if (partition.contains(4)) {
+                throw new IllegalStateException("failed partition");
+            }
+            if (partition.contains(0)) {
+                sleep(50);
+            }
+            return partition.stream().mapToInt(Integer::intValue).sum();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        PartitionedResult<Integer> result = asyncExecution.withPartitionedResult(items, function, PARTITION_SIZE,
+                executor, PartitionOptions.DEFAULT);
+
+        assertEquals(4, result.getOutcomes().size());
+        assertFalse(result.isSuccessful());
+        assertFalse(result.isTimedOut());
+        assertEquals(List.of(3, 21, 9), result.getResults());
+        PartitionOutcome<Integer> failed = result.getUnsuccessful().get(0);
+        assertEquals(1, result.getUnsuccessful().size());
+        assertEquals(PartitionOutcome.Status.FAILED, failed.status());
+        assertEquals(1, failed.partitionNumber());
+        assertEquals(3, failed.fromIndex());
+        assertEquals(6, failed.toIndex());
+        assertInstanceOf(IllegalStateException.class, failed.exception());
+        assertNull(failed.result());
+        assertEquals(List.of(List.of(3, 4, 5)), result.getUnsuccessfulItems(items));
+        PartitionOutcome<Integer> last = result.getOutcomes().get(3);
+        assertEquals(9, last.fromIndex());
+        assertEquals(10, last.toIndex());
+        assertEquals(1, last.attempts());
+        assertEquals(0, result.getSlowest().orElseThrow().partitionNumber());
+        assertTrue(result.getSlowest().orElseThrow().executionTime().toMillis() >= 50);
+        result.getOutcomes().forEach(outcome -> assertFalse(outcome.queueWait().isNegative()));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionedResult - partitions that didn't complete within the timeout should be reported")
+    void testWithPartitionedResult_Timeout() {
+        List<Integer> items = List.of(1, 2, 3);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<List<Integer>, Integer> function = partition -> {
+            if (partition.contains(2)) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return partition.get(0);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        PartitionedResult<Integer> result = asyncExecution.withPartitionedResult(items, function, 1, executor,
+                PartitionOptions.builder().timeout(Duration.ofMillis(200)).build());
+        release.countDown();
+
+        assertTrue(result.isTimedOut());
+        assertEquals(List.of(1, 3), result.getResults());
+        assertEquals(PartitionOutcome.Status.TIMED_OUT, result.getOutcomes().get(1).status());
+        assertEquals(Duration.ZERO, result.getOutcomes().get(1).executionTime());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionedResult - a rejected call should report the rejected and cancelled partitions")
+    void testWithPartitionedResult_Rejected() throws InterruptedException {
+        List<Integer> items = IntStream.range(0, 5).boxed().toList();
+        CountDownLatch release = new CountDownLatch(1);
+        Function<List<Integer>, Integer> function = partition -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return partition.get(0);
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+
+        PartitionedResult<Integer> result = asyncExecution.withPartitionedResult(items, function, 1, executor,
+                PartitionOptions.DEFAULT);
+        release.countDown();
+
+        List<PartitionOutcome<Integer>> outcomes = result.getOutcomes();
+        assertEquals(5, outcomes.size());
+        assertEquals(PartitionOutcome.Status.FAILED, outcomes.get(2).status());
+        assertInstanceOf(RejectedExecutionException.class, outcomes.get(2).exception());
+        assertEquals(PartitionOutcome.Status.CANCELLED, outcomes.get(3).status());
+        assertEquals(PartitionOutcome.Status.CANCELLED, outcomes.get(4).status());
+        assertEquals(0, outcomes.get(4).attempts());
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionedResult - retried partitions should report the number of attempts")
+    void testWithPartitionedResult_Retry() {
+        AtomicInteger invocations = new AtomicInteger();
+        Function<List<Integer>, Integer> function = partition -> {
+            if (invocations.incrementAndGet() < 3) {
+                throw new IllegalStateException("transient");
+            }
+            return partition.get(0);
+        };
+        RetryPolicy retryPolicy = RetryPolicy.builder().maxAttempts(3).initialBackoff(Duration.ofMillis(1)).build();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        PartitionedResult<Integer> result = asyncExecution.withPartitionedResult(List.of(7), function, 1, executor,
+                PartitionOptions.builder().retryPolicy(retryPolicy).build());
+
+        assertTrue(result.isSuccessful());
+        assertEquals(List.of(7), result.getResults());
+        assertEquals(3, result.getOutcomes().get(0).attempts());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with fail fast - an expired timeout should interrupt the running partitions")
+    void testWithPartition_FailFastOnTimeout() throws InterruptedException {
+        List<Integer> items = IntStream.range(0, 4).boxed().toList();
+        CountDownLatch interrupted = new CountDownLatch(2);
+        Consumer<List<Integer>> function = partition -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        PartitionOptions options = PartitionOptions.builder().failFast(true).timeout(Duration.ofMillis(200)).build();
+
+        asyncExecution.withPartition(items, function, 1, executor, options);
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition on a fork join pool - partitions should be split while workers are idle")
+    void testWithPartition_ForkJoinPoolSplitsPartitions() {
+        List<Integer> items = IntStream.range(0, 64).boxed().toList();
+        AtomicInteger invocations = new AtomicInteger();
+        Function<List<Integer>, List<Integer>> function = partition -> {
+            invocations.incrementAndGet();
+            sleep(partition.size());
+            return partition.stream().map(i -> i * 2).toList();
+        };
+        ForkJoinPool executor = new ForkJoinPool(4);
+
+        List<Integer> result = asyncExecution.withPartition(items, function, 64, executor,
+                item -> item.stream().flatMap(Collection::stream).toList());
+
+        assertEquals(items.stream().map(i -> i * 2).toList(), result);
+        assertTrue(invocations.get() > 1);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a max concurrency - no more partitions of the call should be in flight")
+    void testWithPartition_MaxConcurrency() {
+        List<Integer> items = IntStream.range(0, 12).boxed().toList();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> completed = new CopyOnWriteArrayList<>();
+        Consumer<List<Integer>> function = partition -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            completed.add(partition.get(0));
+            running.decrementAndGet();
+        };
+
+        asyncExecution.withPartition(items, function, 1, executor,
+                PartitionOptions.builder().toThrow(true).maxConcurrency(2).build());
+
+        // the pool has room for 4, the others are held back by the call until a slot is released
+        assertEquals(items.size(), completed.size());
+        assertTrue(maxRunning.get() <= 2);
+        assertThrows(IllegalArgumentException.class, () -> asyncExecution.withPartition(items, function, 1, executor,
+                PartitionOptions.builder().maxConcurrency(-1).build()));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a max concurrency on a saturated executor - a rejected partition should not submit the held back ones")
+    void testWithPartition_MaxConcurrencyRejected() {
+        List<Integer> items = IntStream.range(0, 4).boxed().toList();
+        AtomicInteger executed = new AtomicInteger();
+        // accepts the first partition only
+        Executor executor = task -> {
+            if (executed.getAndIncrement() > 0) {
+                throw new RejectedExecutionException("saturated");
+            }
+            new Thread(task).start();
+        };
+
+        asyncExecution.withPartition(items, partition -> sleep(50), 1, executor,
+                PartitionOptions.builder().maxConcurrency(1).build());
+
+        // the first partition released its slot to the second one, the rejection of which cancelled the call
+        assertEquals(2, executed.get());
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a max concurrency and fail fast - held back partitions should not be submitted")
+    void testWithPartition_MaxConcurrencyFailFast() {
+        List<Integer> items = IntStream.range(0, 10).boxed().toList();
+        AtomicInteger invocations = new AtomicInteger();
+        Consumer<List<Integer>> function = partition -> {
+            invocations.incrementAndGet();
+            throw new IllegalStateException("failed partition");
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        assertThrows(RuntimeException.class, () -> asyncExecution.withPartition(items, function, 1, executor,
+                PartitionOptions.builder().toThrow(true).failFast(true).maxConcurrency(1).build()));
+        assertEquals(1, invocations.get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a configured max concurrency - calls without their own should use it")
+    void testWithPartition_ConfiguredMaxConcurrency() {
+        AsyncProperties asyncProperties = new AsyncProperties();
+        asyncProperties.getPartition().setMaxConcurrency(1);
+        ExecutorServiceManager executorServiceManager = newManager(asyncProperties);
+        AsyncListExecutor execution = new AsyncListExecution(executorServiceManager);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        execution.withPartition(IntStream.range(0, 6).boxed().toList(), partition -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+        }, 1);
+
+        assertEquals(1, maxRunning.get());
+        executorServiceManager.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionByKey - the items of a key should be in a single partition, in list order")
+    void testWithPartitionByKey_KeepsKeyTogether() {
+        // item = account * 100 + sequence number of the update of the account
+        List<Integer> items = IntStream.range(0, 200).map(i -> (i % 20) * 100 + i / 20).boxed().toList();
+        List<List<Integer>> partitions = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        asyncExecution.withPartitionByKey(items, item -> item / 100, partitions::add, 4, executor,
+                PartitionOptions.builder().toThrow(true).build());
+
+        assertTrue(partitions.size() <= 4);
+        assertEquals(items.size(), partitions.stream().mapToInt(List::size).sum());
+        Map<Integer, List<Integer>> partitionOfAccount = new HashMap<>();
+        for (List<Integer> partition : partitions) {
+            for (Integer item : partition) {
+                assertSame(partition, partitionOfAccount.computeIfAbsent(item / 100, account -> partition));
+            }
+            // the updates of every account are in list order
+            Map<Integer, List<Integer>> updatesOfAccount = partition.stream()
+                    .collect(Collectors.groupingBy(item -> item / 100));
+            updatesOfAccount.values().forEach(updates -> assertEquals(updates.stream().sorted().toList(), updates));
+        }
+        assertEquals(20, partitionOfAccount.size());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionByKey - the results of the key partitions should be combined")
+    void testWithPartitionByKey_CombinesResults() {
+        List<String> items = List.of("a1", "b1", "a2", "c1", "b2", "a3");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Integer result = asyncExecution.withPartitionByKey(items, item -> item.charAt(0), List::size, 8, executor,
+                results -> results.stream().mapToInt(Integer::intValue).sum(), PartitionOptions.DEFAULT);
+
+        assertEquals(items.size(), result);
+        assertThrows(IllegalArgumentException.class, () -> asyncExecution.withPartitionByKey(items, null,
+                partition -> {}, 4));
+        assertThrows(IllegalArgumentException.class, () -> asyncExecution.withPartitionByKey(items,
+                item -> item.charAt(0), partition -> {}, 0));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withWeightedPartition - partitions should have equal weight and the heaviest should run first")
+    void testWithWeightedPartition_BalancesWeight() {
+        // document sizes, slicing by count would put the large document with 3 small ones
+        List<Integer> items = IntStream.range(0, 13).map(i -> i == 6 ? 400 : 100).boxed().toList();
+        List<List<Integer>> partitions = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        Integer result = asyncExecution.withWeightedPartition(items, Integer::longValue, partition -> {
+                    partitions.add(partition);
+                    return partition.stream().mapToInt(Integer::intValue).sum();
+                }, 4, 10, executor, results -> results.stream().mapToInt(Integer::intValue).sum(),
+                PartitionOptions.DEFAULT);
+
+        assertEquals(1600, result);
+        assertEquals(List.of(400), partitions.get(0));
+        partitions.forEach(partition -> assertEquals(400, partition.stream().mapToInt(Integer::intValue).sum()));
+        assertThrows(IllegalArgumentException.class, () -> asyncExecution.withWeightedPartition(items, null,
+                partition -> {}, 4, 10));
+        assertThrows(IllegalArgumentException.class, () -> asyncExecution.withWeightedPartition(items,
+                Integer::longValue, partition -> {}, 4, 0));
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withCachedPartition - cached items should be served inline and only misses computed")
+    void testWithCachedPartition_ComputesMissesOnly() {
+        PartitionCache<Integer, String> cache = PartitionCache.<Integer, String>builder().maximumSize(100)
+                .expireAfterWrite(Duration.ofMinutes(1)).build();
+        List<Integer> computed = new CopyOnWriteArrayList<>();
+        Function<List<Integer>, Map<Integer, String>> function = partition -> {
+            computed.addAll(partition);
+            Map<Integer, String> values = new HashMap<>();
+            partition.forEach(item -> values.put(item, "value-" + item));
+            return values;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        Map<Integer, String> first = asyncExecution.withCachedPartition(IntStream.range(0, 10).boxed().toList(),
+                function, 3, cache, executor, PartitionOptions.DEFAULT);
+        Map<Integer, String> second = asyncExecution.withCachedPartition(IntStream.range(5, 15).boxed().toList(),
+                function, 3, cache, executor, PartitionOptions.DEFAULT);
+
+        assertEquals(10, first.size());
+        assertEquals(IntStream.range(5, 15).boxed().toList(), new ArrayList<>(second.keySet()));
+        assertEquals("value-12", second.get(12));
+        assertEquals(15, computed.size());
+        assertEquals(Set.copyOf(computed), IntStream.range(0, 15).boxed().collect(Collectors.toSet()));
+        PartitionCache.Stats stats = cache.getStats();
+        assertEquals(5, stats.hits());
+        assertEquals(15, stats.misses());
+        assertEquals(0.25, stats.hitRate());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withCachedPartition - concurrent misses of the same items should be computed once")
+    void testWithCachedPartition_CoalescesConcurrentMisses() throws Exception {
+        PartitionCache<Integer, Integer> cache = PartitionCache.<Integer, Integer>builder().maximumSize(100)
+                .expireAfterWrite(Duration.ofMinutes(1)).build();
+        List<Integer> items = IntStream.range(0, 6).boxed().toList();
+        AtomicInteger computed = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<List<Integer>, Map<Integer, Integer>> function = partition -> {
+            computed.addAndGet(partition.size());
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Map<Integer, Integer> values = new HashMap<>();
+            partition.forEach(item -> values.put(item, item * 10));
+            return values;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        CompletableFuture<Map<Integer, Integer>> first = CompletableFuture.supplyAsync(() ->
+                asyncExecution.withCachedPartition(items, function, 6, cache, executor, PartitionOptions.DEFAULT));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Map<Integer, Integer>> second = CompletableFuture.supplyAsync(() ->
+                asyncExecution.withCachedPartition(items, function, 6, cache, executor, PartitionOptions.DEFAULT));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getStats().coalesced() < items.size() && System.nanoTime() < deadline) {
+            sleep(1);
+        }
+        release.countDown();
+
+        assertEquals(50, first.get(5, TimeUnit.SECONDS).get(5));
+        assertEquals(first.get(), second.get(5, TimeUnit.SECONDS));
+        assertEquals(items.size(), computed.get());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withCachedPartition - an item computed for longer than its expiry should not expire before it's computed")
+    void testWithCachedPartition_ExpiryStartsOnceComputed() throws Exception {
+        PartitionCache<Integer, Integer> cache = PartitionCache.<Integer, Integer>builder().maximumSize(100)
+                .expireAfterWrite(Duration.ofMillis(500)).build();
+        List<Integer> items = IntStream.range(0, 4).boxed().toList();
+        AtomicInteger computed = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<List<Integer>, Map<Integer, Integer>> function = partition -> {
+            computed.addAndGet(partition.size());
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Map<Integer, Integer> values = new HashMap<>();
+            partition.forEach(item -> values.put(item, item));
+            return values;
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        CompletableFuture<Map<Integer, Integer>> first = CompletableFuture.supplyAsync(() ->
+                asyncExecution.withCachedPartition(items, function, 4, cache, executor, PartitionOptions.DEFAULT));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        sleep(700);
+        CompletableFuture<Map<Integer, Integer>> second = CompletableFuture.supplyAsync(() ->
+                asyncExecution.withCachedPartition(items, function, 4, cache, executor, PartitionOptions.DEFAULT));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.getStats().coalesced() < items.size() && System.nanoTime() < deadline) {
+            sleep(1);
+        }
+        release.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        // the second call waited for the pending items past their expiry instead of computing them again
+        assertEquals(items.size(), computed.get());
+        assertEquals(items.size(), cache.getStats().coalesced());
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withCachedPartition - failed and missing items should not be cached")
+    void testWithCachedPartition_FailuresNotCached() {
+        PartitionCache<Integer, Integer> cache = PartitionCache.<Integer, Integer>builder().maximumSize(100)
+                .expireAfterWrite(Duration.ofMinutes(1)).build();
+        AtomicInteger calls = new AtomicInteger();
+        Function<List<Integer>, Map<Integer, Integer>> function = partition -> {
+            if (calls.incrementAndGet() == 1 && partition.contains(0)) {
+                throw new IllegalStateException("failed partition");
+            }
+            // odd items have no value
+            Map<Integer, Integer> values = new HashMap<>();
+            partition.stream().filter(item -> item % 2 == 0).forEach(item -> values.put(item, item));
+            return values;
+        };
+        List<Integer> items = List.of(0, 1, 2, 3);
+
+        Map<Integer, Integer> first = asyncExecution.withCachedPartition(items, function, 4, cache, Runnable::run,
+                PartitionOptions.DEFAULT);
+        Map<Integer, Integer> second = asyncExecution.withCachedPartition(items, function, 4, cache, Runnable::run,
+                PartitionOptions.DEFAULT);
+
+        assertTrue(first.isEmpty());
+        assertEquals(Map.of(0, 0, 2, 2), second);
+        assertEquals(2, cache.getStats().size());
+        assertThrows(RuntimeException.class, () -> asyncExecution.withCachedPartition(List.of(10), partition -> {
+                    throw new IllegalStateException("failed partition");
+                }, 1, cache, Runnable::run, PartitionOptions.builder().toThrow(true).build()));
+        assertThrows(IllegalArgumentException.class, () -> PartitionCache.<Integer, Integer>builder()
+                .expireAfterWrite(Duration.ofMinutes(1)).build());
+        assertThrows(IllegalArgumentException.class, () -> PartitionCache.<Integer, Integer>builder()
+                .maximumWeight(10).expireAfterWrite(Duration.ofMinutes(1)).build());
+    }
+
+    @Test
+    @DisplayName("Testing withCachedPartition with a maximum weight - items should be evicted by the weight of their value")
+    void testWithCachedPartition_MaximumWeight() {
+        PartitionCache<Integer, String> cache = PartitionCache.<Integer, String>builder().maximumWeight(10)
+                .weigher((item, value) -> value.length()).expireAfterWrite(Duration.ofMinutes(1)).build();
+        Function<List<Integer>, Map<Integer, String>> function = partition -> {
+            Map<Integer, String> values = new HashMap<>();
+            partition.forEach(item -> values.put(item, "x".repeat(4)));
+            return values;
+        };
+
+        Map<Integer, String> result = asyncExecution.withCachedPartition(IntStream.range(0, 5).boxed().toList(),
+                function, 1, cache, Runnable::run, PartitionOptions.DEFAULT);
+
+        assertEquals(5, result.size());
+        assertTrue(cache.getStats().size() <= 2);
+        assertTrue(cache.getStats().evictions() >= 3);
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with a meter registry - partition count, durations and failures should be recorded")
+    void testWithPartition_RecordsMetrics() {
+        ExecutorServiceManager executorServiceManager = newManager(new AsyncProperties());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        executorServiceManager.setMetricsBinder(new MicrometerExecutorMetricsBinder(meterRegistry));
+        executorServiceManager.init();
+        AsyncListExecutor execution = new AsyncListExecution(executorServiceManager);
+        List<Integer> items = IntStream.range(0, 9).boxed().toList();
+        Consumer<List<Integer>> function = partition -> {
+            if (partition.contains(0)) {
+                throw new IllegalStateException("failed partition");
+            }
+        };
+
+        execution.withPartition(items, function, PARTITION_SIZE);
+
+        String executorName = ExecutorServiceManager.DEFAULT_EXECUTOR;
+        assertEquals(3, meterRegistry.get("async.partition.count").tag("executor", executorName).summary().totalAmount());
+        assertEquals(3, meterRegistry.get("async.partition.duration").tag("executor", executorName).timer().count());
+        assertEquals(1, meterRegistry.get("async.partition.failures").tag("executor", executorName).counter().count());
+        assertEquals(0, meterRegistry.get("async.partition.timeouts").tag("executor", executorName).counter().count());
+        executorServiceManager.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition with an MDC - every partition should run with the MDC of the caller")
+    void testWithPartition_PropagatesContext() {
+        List<Integer> items = IntStream.range(0, 9).boxed().toList();
+        Set<String> requestIds = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        MDC.put("requestId", "42");
+        try {
+            asyncExecution.withPartition(items, partition -> requestIds.add(String.valueOf(MDC.get("requestId"))),
+                    PARTITION_SIZE, executor);
+        } finally {
+            MDC.clear();
+        }
+
+        assertEquals(Set.of("42"), requestIds);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartition on a saturated executor - the submitted partitions should be cancelled")
+    void testWithPartition_RejectedCancelsSubmittedPartitions() throws InterruptedException {
+        List<Integer> items = IntStream.range(0, 5).boxed().toList();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger invocations = new AtomicInteger();
+        Consumer<List<Integer>> function = partition -> {
+            invocations.incrementAndGet();
+            started.countDown();
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+
+        assertThrows(RejectedExecutionException.class,
+                () -> asyncExecution.withPartition(items, function, 1, executor));
+
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS) || !started.await(0, TimeUnit.SECONDS));
+        executor.shutdown();
+        // every submitted partition was either skipped or interrupted, none of them sleeps for long
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(invocations.get() <= 2);
+    }
+
+    @Test
+    @DisplayName("Testing withPartition on a long array - every slice should be visited exactly once")
+    void testWithPartition_LongArray() {
+        long[] items = LongStream.range(0, 1_000).toArray();
+        AtomicLong sum = new AtomicLong();
+        AtomicInteger invocations = new AtomicInteger();
+
+        asyncExecution.withPartition(items, (array, offset, length) -> {
+            invocations.incrementAndGet();
+            long partitionSum = 0;
+            for (int i = offset; i < offset + length; i++) {
+                partitionSum += array[i];
+            }
+            sum.addAndGet(partitionSum);
+        }, 300);
+
+        assertEquals(4, invocations.get());
+        assertEquals(LongStream.range(0, 1_000).sum(), sum.get());
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionReduce on primitive arrays - the slice results should be combined")
+    void testWithPartitionReduce_PrimitiveArrays() {
+        int[] ints = IntStream.rangeClosed(1, 100).toArray();
+        long[] longs = LongStream.rangeClosed(1, 100).toArray();
+        double[] doubles = DoubleStream.generate(() -> 0.5).limit(100).toArray();
+
+        int max = asyncExecution.withPartitionReduce(ints, (array, offset, length) ->
+                Arrays.stream(array, offset, offset + length).max().orElse(Integer.MIN_VALUE),
+                PARTITION_SIZE, Integer.MIN_VALUE, Math::max);
+        long sum = asyncExecution.withPartitionReduce(longs, (array, offset, length) ->
+                Arrays.stream(array, offset, offset + length).sum(), PARTITION_SIZE, 0L, Long::sum);
+        double doubleSum = asyncExecution.withPartitionReduce(doubles, (array, offset, length) ->
+                Arrays.stream(array, offset, offset + length).sum(), PARTITION_SIZE, 0.0, Double::sum);
+
+        assertEquals(100, max);
+        assertEquals(5050L, sum);
+        assertEquals(50.0, doubleSum, 1e-9);
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionReduce on a primitive array with a failed slice - the failure should be thrown unless the options say otherwise")
+    void testWithPartitionReduce_PrimitiveArraysFailedSlice() {
+        long[] items = LongStream.rangeClosed(1, 100).toArray();
+        LongArrayRangeFunction function = (array, offset, length) -> {
+            if (offset == 0) {
+                throw new IllegalStateException("failed slice");
+            }
+            return Arrays.stream(array, offset, offset + length).sum();
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> asyncExecution.withPartitionReduce(items, function, 10, executor, 0L, Long::sum));
+        long partialSum = asyncExecution.withPartitionReduce(items, function, 10, executor, 0L, Long::sum,
+                PartitionOptions.DEFAULT);
+
+        assertInstanceOf(IllegalStateException.class, exception.getCause().getCause());
+        // the first slice, 1 to 10, is left out
+        assertEquals(5050L - 55L, partialSum);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing primitive arrays with invalid parameters - empty arrays return the identity")
+    void testWithPartition_PrimitiveArraysInvalidParameters() {
+        IntArrayRangeConsumer function = mock(IntArrayRangeConsumer.class);
+
+        asyncExecution.withPartition(new int[0], function, PARTITION_SIZE);
+
+        verify(function, never()).accept(any(), anyInt(), anyInt());
+        assertEquals(7L, asyncExecution.withPartitionReduce(new long[0], (array, offset, length) -> 1L,
+                PARTITION_SIZE, 7L, Long::sum));
+        assertThrows(IllegalArgumentException.class,
+                () -> asyncExecution.withPartition(new int[]{1}, function, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> asyncExecution.withPartition((int[]) null, function, PARTITION_SIZE));
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionPublisher - results should be published in completion order")
+    void testWithPartitionPublisher_CompletionOrder() throws InterruptedException {
+        List<Integer> items = List.of(300, 200, 100, 0);
+        Function<List<Integer>, Integer> function = partition -> {
+            sleep(partition.get(0));
+            return partition.get(0);
+        };
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<>(Long.MAX_VALUE);
+
+        asyncExecution.withPartitionPublisher(items, function, 1).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(0, 100, 200, 300), subscriber.results);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionPublisher - partitions should only be submitted on demand")
+    void testWithPartitionPublisher_Backpressure() throws InterruptedException {
+        List<Integer> items = IntStream.range(0, 10).boxed().toList();
+        AtomicInteger invocations = new AtomicInteger();
+        Function<List<Integer>, Integer> function = partition -> {
+            invocations.incrementAndGet();
+            return partition.get(0);
+        };
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<>(2);
+
+        asyncExecution.withPartitionPublisher(items, function, 1).subscribe(subscriber);
+        sleep(100);
+
+        assertEquals(2, invocations.get());
+        assertEquals(2, subscriber.results.size());
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.done.await(1, TimeUnit.SECONDS));
+        assertEquals(10, invocations.get());
+        assertEquals(Set.copyOf(items), Set.copyOf(subscriber.results));
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionPublisher with a failed partition - the error should be signalled")
+    void testWithPartitionPublisher_Failure() throws InterruptedException {
+        List<Integer> items = IntStream.range(0, 5).boxed().toList();
+        Function<List<Integer>, Integer> function = partition -> {
+            if (partition.contains(2)) {
+                throw new IllegalStateException("failed partition");
+            }
+            return partition.get(0);
+        };
+        CollectingSubscriber<Integer> subscriber = new CollectingSubscriber<>(Long.MAX_VALUE);
+
+        asyncExecution.withPartitionPublisher(items, function, 1).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, subscriber.error);
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionPublisher with an empty list - the subscriber should complete")
+    void testWithPartitionPublisher_EmptyList() throws InterruptedException {
+        CollectingSubscriber<Object> subscriber = new CollectingSubscriber<>(1);
+
+        asyncExecution.withPartitionPublisher(Collections.emptyList(), partition -> partition, 1).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(1, TimeUnit.SECONDS));
+        assertTrue(subscriber.results.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Testing nested withPartition calls on the same executor - the calling workers should run the inner partitions")
+    void testWithPartition_NestedCallsOnSameExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Integer> items = IntStream.range(0, 16).boxed().toList();
+        Function<List<Integer>, List<Integer>> inner = partition -> {
+            sleep(10);
+            return partition.stream().map(i -> i * 2).toList();
+        };
+        Function<List<Integer>, List<Integer>> outer = partition -> asyncExecution.withPartition(partition, inner, 1,
+                executor, item -> item.stream().flatMap(Collection::stream).toList());
+
+        long start = System.nanoTime();
+        List<Integer> result = asyncExecution.withPartition(items, outer, 4, executor,
+                item -> item.stream().flatMap(Collection::stream).toList());
+
+        assertEquals(items.stream().map(i -> i * 2).toList(), result);
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 5);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing nested withPartitionReduce calls on the same executor - the inner merges should not wait for a worker")
+    void testWithPartitionReduce_NestedCallsOnSameExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Integer> items = IntStream.range(0, 16).boxed().toList();
+        Function<List<Integer>, Integer> outer = partition -> asyncExecution.withPartitionReduce(partition,
+                inner -> inner.stream().mapToInt(Integer::intValue).sum(), 1, executor, 0, Integer::sum);
+
+        int sum = asyncExecution.withPartitionReduce(items, outer, 4, executor, 0, Integer::sum);
+
+        assertEquals(items.stream().mapToInt(Integer::intValue).sum(), sum);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing a retry of a nested call - the retry should not wait behind the blocked calling worker")
+    void testWithPartition_NestedRetry() {
+        ExecutorService executor = Executors.newFixedThreadPool(1);
+        AtomicInteger attempts = new AtomicInteger();
+        Function<List<Integer>, List<Integer>> inner = partition -> {
+            if (partition.contains(2) && attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("transient");
+            }
+            return partition;
+        };
+        PartitionOptions innerOptions = PartitionOptions.builder().toThrow(true).timeout(Duration.ofSeconds(2))
+                .retryPolicy(RetryPolicy.builder().maxAttempts(3).initialBackoff(Duration.ofMillis(10)).build())
+                .build();
+        Function<List<Integer>, List<Integer>> outer = partition -> asyncExecution.withPartition(partition, inner, 1,
+                executor, item -> item.stream().flatMap(Collection::stream).toList(), innerOptions);
+        List<Integer> items = IntStream.range(0, 4).boxed().toList();
+
+        long start = System.nanoTime();
+        List<Integer> result = asyncExecution.withPartition(items, outer, 4, executor,
+                item -> item.stream().flatMap(Collection::stream).toList());
+
+        assertEquals(items, result);
+        assertEquals(2, attempts.get());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Testing withPartitionedResult with caller runs - the time spent submitting should count against the timeout")
+    void testWithPartitionedResult_TimeoutIncludesSubmission() {
+        // a saturated caller runs executor - the caller runs the first two partitions, the last one runs on a thread
+        AtomicInteger submitted = new AtomicInteger();
+        Executor executor = task -> {
+            if (submitted.getAndIncrement() < 2) {
+                task.run();
+            } else {
+                new Thread(task).start();
+            }
+        };
+        List<Integer> items = IntStream.range(0, 3).boxed().toList();
+        Function<List<Integer>, Integer> function = partition -> {
+            sleep(300);
+            return partition.size();
+        };
+        PartitionOptions options = PartitionOptions.builder().timeout(Duration.ofMillis(400)).build();
+
+        PartitionedResult<Integer> result = asyncExecution.withPartitionedResult(items, function, 1, executor,
+                options);
+
+        // the submission took 600 ms, the last partition completes 300 ms later, after the deadline of the call
+        assertTrue(result.isTimedOut());
+    }
+
+    private static class CollectingSubscriber<R> implements Flow.Subscriber<R> {
+        private final long initialRequest;
+        private final List<R> results = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+
+        CollectingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(initialRequest);
+        }
+
+        @Override
+        public void onNext(R item) {
+            results.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+
+    private static ExecutorServiceManager newManager(AsyncProperties asyncProperties) {
+        TaskDecoratorResolver taskDecoratorResolver = Mockito.mock(TaskDecoratorResolver.class);
+        doReturn(new ContextAwareTaskDecorator()).when(taskDecoratorResolver).getTaskDecorator();
+        return new ExecutorServiceManager(new ExecutorFactory(asyncProperties, taskDecoratorResolver));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
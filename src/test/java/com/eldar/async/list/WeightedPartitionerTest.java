@@ -0,0 +1,59 @@
+package com.eldar.async.list;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedPartitionerTest {
+
+    @Test
+    @DisplayName("Partitions should have roughly equal total weight, the heaviest first")
+    void testPartition_BalancesWeight() {
+        // one heavy item followed by light ones, count based slicing puts the heavy item with 3 light ones
+        List<Integer> items = IntStream.range(0, 13).map(i -> i == 0 ? 400 : 100).boxed().toList();
+
+        List<List<Integer>> partitions = WeightedPartitioner.partition(items, Integer::longValue, 4, 100);
+
+        assertEquals(4, partitions.size());
+        assertEquals(List.of(400), partitions.get(0));
+        partitions.forEach(partition -> assertEquals(400, partition.stream().mapToInt(Integer::intValue).sum()));
+    }
+
+    @Test
+    @DisplayName("Partitions should not exceed the max partition size, even if more partitions are needed")
+    void testPartition_MaxPartitionSize() {
+        List<Integer> items = IntStream.range(0, 10).boxed().toList();
+
+        List<List<Integer>> partitions = WeightedPartitioner.partition(items, item -> 1, 2, 3);
+
+        assertEquals(4, partitions.size());
+        partitions.forEach(partition -> assertTrue(partition.size() <= 3));
+        assertEquals(items, partitions.stream().flatMap(List::stream).sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Items of a partition should keep their order in the list")
+    void testPartition_KeepsListOrder() {
+        List<Integer> items = List.of(5, 1, 9, 3, 7, 2, 8);
+
+        List<List<Integer>> partitions = WeightedPartitioner.partition(items, Integer::longValue, 2, 10);
+
+        for (List<Integer> partition : partitions) {
+            List<Integer> positions = partition.stream().map(items::indexOf).toList();
+            assertEquals(positions.stream().sorted().toList(), positions);
+        }
+        assertEquals(items.size(), partitions.stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    @DisplayName("Fewer items than partitions should produce a partition per item, a negative weight should throw")
+    void testPartition_FewItemsAndNegativeWeight() {
+        assertEquals(2, WeightedPartitioner.partition(List.of(1, 2), Integer::longValue, 8, 10).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> WeightedPartitioner.partition(List.of(1, -2), Integer::longValue, 2, 10));
+    }
+}